@@ -0,0 +1,88 @@
+package net.boomerangplatform;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@Configuration
+public class ExecutorConfig {
+
+  @Value("${bosun.scheduler.pool.size}")
+  private int schedulerPoolSize;
+
+  @Value("${bosun.validation.executor.core.size}")
+  private int validationCoreSize;
+
+  @Value("${bosun.validation.executor.max.size}")
+  private int validationMaxSize;
+
+  @Value("${bosun.validation.executor.queue.capacity}")
+  private int validationQueueCapacity;
+
+  @Value("${bosun.validation.batch.executor.core.size}")
+  private int batchCoreSize;
+
+  @Value("${bosun.validation.batch.executor.max.size}")
+  private int batchMaxSize;
+
+  @Value("${bosun.validation.batch.executor.queue.capacity}")
+  private int batchQueueCapacity;
+
+  @Value("${bosun.validation.jobs.executor.size}")
+  private int jobsSize;
+
+  @Value("${bosun.validation.jobs.executor.queue.capacity}")
+  private int jobsQueueCapacity;
+
+  /*
+   * Replaces the single thread scheduler, so a long latest activity rebuild does not hold up the
+   * OPA health checks, registry refreshes and job polling.
+   */
+  @Bean
+  public ThreadPoolTaskScheduler taskScheduler() {
+    ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    scheduler.setPoolSize(schedulerPoolSize);
+    scheduler.setThreadNamePrefix("bosun-scheduler-");
+    return scheduler;
+  }
+
+  @Bean
+  public ThreadPoolTaskExecutor validationExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(validationCoreSize);
+    executor.setMaxPoolSize(validationMaxSize);
+    executor.setQueueCapacity(validationQueueCapacity);
+    executor.setThreadNamePrefix("bosun-validation-");
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    return executor;
+  }
+
+  @Bean
+  public ThreadPoolTaskExecutor batchValidationExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(batchCoreSize);
+    executor.setMaxPoolSize(batchMaxSize);
+    executor.setQueueCapacity(batchQueueCapacity);
+    executor.setThreadNamePrefix("bosun-batch-");
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    return executor;
+  }
+
+  @Bean
+  public ThreadPoolTaskExecutor validationJobExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(jobsSize);
+    executor.setMaxPoolSize(jobsSize);
+    executor.setQueueCapacity(jobsQueueCapacity);
+    executor.setThreadNamePrefix("bosun-job-");
+    /* Rejected jobs are released back to the queue instead of running on the polling thread. */
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    return executor;
+  }
+}
@@ -0,0 +1,179 @@
+package net.boomerangplatform;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.boomerangplatform.opa.service.OpaEndpoint;
+import net.boomerangplatform.opa.service.OpaEndpointPool;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+@Configuration
+public class OpaClientConfig {
+
+  private static final String POOL_METRIC = "bosun.opa.http.pool";
+
+  private static final String ENDPOINT_METRIC = "bosun.opa.endpoint";
+
+  @Value("${opa.http.pool.max.total}")
+  private int maxTotal;
+
+  @Value("${opa.http.pool.max.per.route}")
+  private int maxPerRoute;
+
+  @Value("${opa.http.pool.idle.timeout.ms}")
+  private long idleTimeout;
+
+  @Value("${opa.http.pool.keepalive.ms}")
+  private long keepAlive;
+
+  @Value("${opa.http.connect.timeout.ms}")
+  private int connectTimeout;
+
+  @Value("${opa.http.read.timeout.ms}")
+  private int readTimeout;
+
+  @Value("${opa.http.pool.lease.timeout.ms}")
+  private int leaseTimeout;
+
+  @Value("${opa.rest.url.endpoints}")
+  private List<String> endpoints;
+
+  @Value("${opa.circuitbreaker.failure.rate.threshold}")
+  private float failureRateThreshold;
+
+  @Value("${opa.circuitbreaker.slow.call.rate.threshold}")
+  private float slowCallRateThreshold;
+
+  @Value("${opa.circuitbreaker.slow.call.duration.ms}")
+  private long slowCallDuration;
+
+  @Value("${opa.circuitbreaker.sliding.window.size}")
+  private int slidingWindowSize;
+
+  @Value("${opa.circuitbreaker.minimum.calls}")
+  private int minimumCalls;
+
+  @Value("${opa.circuitbreaker.open.wait.ms}")
+  private long openWait;
+
+  @Value("${opa.circuitbreaker.half.open.calls}")
+  private int halfOpenCalls;
+
+  @Value("${opa.bulkhead.max.concurrent.calls}")
+  private int maxConcurrentCalls;
+
+  @Value("${opa.bulkhead.max.wait.ms}")
+  private long maxWait;
+
+  @Bean
+  public PoolingHttpClientConnectionManager opaConnectionManager(MeterRegistry meterRegistry) {
+    PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+    connectionManager.setMaxTotal(maxTotal);
+    connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+    connectionManager.setValidateAfterInactivity(1000);
+
+    Gauge.builder(POOL_METRIC, connectionManager, cm -> cm.getTotalStats().getLeased())
+        .tag("state", "leased").register(meterRegistry);
+    Gauge.builder(POOL_METRIC, connectionManager, cm -> cm.getTotalStats().getAvailable())
+        .tag("state", "available").register(meterRegistry);
+    Gauge.builder(POOL_METRIC, connectionManager, cm -> cm.getTotalStats().getPending())
+        .tag("state", "pending").register(meterRegistry);
+    Gauge.builder(POOL_METRIC + ".max", connectionManager, cm -> cm.getTotalStats().getMax())
+        .register(meterRegistry);
+
+    return connectionManager;
+  }
+
+  @Bean(destroyMethod = "close")
+  public CloseableHttpClient opaHttpClient(PoolingHttpClientConnectionManager opaConnectionManager) {
+    RequestConfig requestConfig = RequestConfig.custom().setConnectTimeout(connectTimeout)
+        .setSocketTimeout(readTimeout).setConnectionRequestTimeout(leaseTimeout).build();
+
+    return HttpClients.custom().setConnectionManager(opaConnectionManager)
+        .setDefaultRequestConfig(requestConfig)
+        .setKeepAliveStrategy((response, context) -> {
+          long duration = DefaultConnectionKeepAliveStrategy.INSTANCE
+              .getKeepAliveDuration(response, context);
+          return duration > 0 ? Math.min(duration, keepAlive) : keepAlive;
+        }).evictExpiredConnections().evictIdleConnections(idleTimeout, TimeUnit.MILLISECONDS)
+        .build();
+  }
+
+  @Bean
+  public RestTemplate opaRestTemplate(CloseableHttpClient opaHttpClient) {
+    return new RestTemplate(new HttpComponentsClientHttpRequestFactory(opaHttpClient));
+  }
+
+  @Bean
+  public WebClient opaWebClient(WebClient.Builder webClientBuilder) {
+    HttpClient httpClient =
+        HttpClient.create(ConnectionProvider.fixed("opa", maxTotal, leaseTimeout))
+            .tcpConfiguration(tcpClient -> tcpClient
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout)
+                .doOnConnected(connection -> connection
+                    .addHandlerLast(new ReadTimeoutHandler(readTimeout, TimeUnit.MILLISECONDS))));
+
+    return webClientBuilder.clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+  }
+
+  @Bean
+  public OpaEndpointPool opaEndpointPool(MeterRegistry meterRegistry) {
+    OpaEndpointPool pool = new OpaEndpointPool(endpoints);
+    for (OpaEndpoint endpoint : pool.getEndpoints()) {
+      Gauge.builder(ENDPOINT_METRIC + ".outstanding", endpoint, OpaEndpoint::getOutstanding)
+          .tag("endpoint", endpoint.getBaseUrl()).register(meterRegistry);
+      Gauge.builder(ENDPOINT_METRIC + ".healthy", endpoint, e -> e.isHealthy() ? 1 : 0)
+          .tag("endpoint", endpoint.getBaseUrl()).register(meterRegistry);
+    }
+    return pool;
+  }
+
+  @Bean
+  public CircuitBreaker opaCircuitBreaker(MeterRegistry meterRegistry) {
+    CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+        .failureRateThreshold(failureRateThreshold).slowCallRateThreshold(slowCallRateThreshold)
+        .slowCallDurationThreshold(Duration.ofMillis(slowCallDuration))
+        .slidingWindowSize(slidingWindowSize).minimumNumberOfCalls(minimumCalls)
+        .waitDurationInOpenState(Duration.ofMillis(openWait))
+        .permittedNumberOfCallsInHalfOpenState(halfOpenCalls).build();
+
+    CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+    TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+    return registry.circuitBreaker("opa");
+  }
+
+  @Bean
+  public Bulkhead opaBulkhead(MeterRegistry meterRegistry) {
+    BulkheadConfig config = BulkheadConfig.custom().maxConcurrentCalls(maxConcurrentCalls)
+        .maxWaitDuration(Duration.ofMillis(maxWait)).build();
+
+    BulkheadRegistry registry = BulkheadRegistry.of(config);
+    TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+    return registry.bulkhead("opa");
+  }
+}
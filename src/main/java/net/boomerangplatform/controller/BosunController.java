@@ -1,9 +1,16 @@
 package net.boomerangplatform.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,12 +21,18 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import net.boomerangplatform.model.Policy;
 import net.boomerangplatform.model.PolicyInsights;
 import net.boomerangplatform.model.PolicyResponse;
 import net.boomerangplatform.model.PolicySummary;
 import net.boomerangplatform.model.PolicyViolations;
+import net.boomerangplatform.model.PolicyViolationsFilter;
+import net.boomerangplatform.model.PolicyViolationsPage;
 import net.boomerangplatform.service.BosunService;
 
 @RestController
@@ -29,6 +42,9 @@ public class BosunController {
   @Autowired
   private BosunService bosunService;
 
+  @Autowired
+  private ObjectMapper objectMapper;
+
   @GetMapping(value = "/policies/operators")
   public ResponseEntity<Map<String, String>> getAllOperators() {
     return ResponseEntity.ok().body(bosunService.getAllOperators());
@@ -68,6 +84,47 @@ public class BosunController {
     return ResponseEntity.ok().body(bosunService.getViolations(teamId));
   }
 
+  @GetMapping(value = "/policies/violations/page")
+  public ResponseEntity<PolicyViolationsPage> getViolationsPage(
+      @RequestParam(value = "teamId", required = true) String teamId,
+      @RequestParam(value = "policyId", required = false) List<String> policyIds,
+      @RequestParam(value = "label", required = false) List<String> labels,
+      @RequestParam(value = "from", required = false)
+      @DateTimeFormat(iso = ISO.DATE_TIME) Date from,
+      @RequestParam(value = "to", required = false) @DateTimeFormat(iso = ISO.DATE_TIME) Date to,
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @RequestParam(value = "limit", defaultValue = "50") int limit) {
+    PolicyViolationsFilter filter = getViolationsFilter(teamId, policyIds, labels, from, to);
+    return ResponseEntity.ok().body(bosunService.getViolations(filter, cursor, limit));
+  }
+
+  @GetMapping(value = "/policies/violations/stream")
+  public ResponseEntity<StreamingResponseBody> streamViolations(
+      @RequestParam(value = "teamId", required = true) String teamId,
+      @RequestParam(value = "policyId", required = false) List<String> policyIds,
+      @RequestParam(value = "label", required = false) List<String> labels,
+      @RequestParam(value = "from", required = false)
+      @DateTimeFormat(iso = ISO.DATE_TIME) Date from,
+      @RequestParam(value = "to", required = false) @DateTimeFormat(iso = ISO.DATE_TIME) Date to) {
+    PolicyViolationsFilter filter = getViolationsFilter(teamId, policyIds, labels, from, to);
+    Stream<PolicyViolations> violations = bosunService.streamViolations(filter);
+    StreamingResponseBody body = outputStream -> {
+      try (violations;
+          JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+        generator.writeStartArray();
+        violations.forEach(violation -> {
+          try {
+            generator.writeObject(violation);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+        generator.writeEndArray();
+      }
+    };
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+  }
+
   @GetMapping(value = "/policies/insights")
   public ResponseEntity<List<PolicyInsights>> getInsights(
       @RequestParam(value = "teamId", required = true) String teamId) {
@@ -80,4 +137,24 @@ public class BosunController {
     
      return ResponseEntity.status(response.getStatus()).body(response);
   }
+
+  /*
+   * Labels are given as key=value.
+   */
+  private static PolicyViolationsFilter getViolationsFilter(String teamId, List<String> policyIds,
+      List<String> labels, Date from, Date to) {
+    PolicyViolationsFilter filter = new PolicyViolationsFilter();
+    filter.setTeamId(teamId);
+    filter.setPolicyIds(policyIds);
+    if (labels != null) {
+      for (String label : labels) {
+        int separator = label.indexOf('=');
+        filter.getLabels().put(separator < 0 ? label : label.substring(0, separator),
+            separator < 0 ? "" : label.substring(separator + 1));
+      }
+    }
+    filter.setFrom(from);
+    filter.setTo(to);
+    return filter;
+  }
 }
@@ -1,5 +1,8 @@
 package net.boomerangplatform.controller;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,7 +14,10 @@ import org.springframework.web.bind.annotation.RestController;
 
 import net.boomerangplatform.entity.PolicyActivityEntity;
 import net.boomerangplatform.model.PolicyValidation;
+import net.boomerangplatform.model.PolicyValidationJob;
+import net.boomerangplatform.model.PolicyValidationResult;
 import net.boomerangplatform.service.BosunService;
+import net.boomerangplatform.service.PolicyValidationJobService;
 
 @RestController
 @RequestMapping("/bosun/validate")
@@ -20,12 +26,42 @@ public class BosunValidationController {
   @Autowired
   private BosunService bosunService;
 
+  @Autowired
+  private PolicyValidationJobService policyValidationJobService;
+
   @PostMapping(value = "")
-  public ResponseEntity<PolicyActivityEntity> validatePolicy(@RequestBody PolicyValidation policyValidation) {
-    return ResponseEntity.ok()
-        .body(bosunService.validatePolicy(policyValidation));
+  public CompletableFuture<ResponseEntity<PolicyActivityEntity>> validatePolicy(
+      @RequestBody PolicyValidation policyValidation) {
+    return bosunService.validatePolicyAsync(policyValidation)
+        .thenApply(activity -> ResponseEntity.ok().body(activity));
   }
   
+  @PostMapping(value = "/batch")
+  public ResponseEntity<List<PolicyValidationResult>> validatePolicies(
+      @RequestBody List<PolicyValidation> policyValidations) {
+    return ResponseEntity.ok()
+        .body(bosunService.validatePolicies(policyValidations));
+  }
+
+  @PostMapping(value = "/jobs")
+  public ResponseEntity<PolicyValidationJob> submitValidationJob(
+      @RequestBody PolicyValidation policyValidation) {
+    return ResponseEntity.accepted()
+        .body(policyValidationJobService.submitJob(policyValidation));
+  }
+
+  @GetMapping(value = "/jobs/{jobId}")
+  public ResponseEntity<PolicyValidationJob> getValidationJob(@PathVariable String jobId) {
+    return ResponseEntity.ok()
+        .body(policyValidationJobService.getJob(jobId));
+  }
+
+  @GetMapping(value = "/jobs/{jobId}/result")
+  public ResponseEntity<PolicyActivityEntity> getValidationJobResult(@PathVariable String jobId) {
+    return ResponseEntity.ok()
+        .body(policyValidationJobService.getJobActivity(jobId));
+  }
+
   @GetMapping(value = "/info/{policyId}")
   public ResponseEntity<PolicyValidation> validateInfo(@PathVariable String policyId) {
     return ResponseEntity.ok()
@@ -1,23 +1,96 @@
 package net.boomerangplatform.controller;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import net.boomerangplatform.service.BosunInternalService;
+import net.boomerangplatform.service.PolicyBundle;
 
 @RestController
 @RequestMapping("/internal")
 public class InternalController {
 
+  /*
+   * Tells OPA that the server supports long polling, so it sends Prefer: wait=N on later polls.
+   */
+  private static final String BUNDLE_CONTENT_TYPE = "application/vnd.openpolicyagent.bundles";
+
+  private static final Pattern PREFER_WAIT = Pattern.compile("(?:^|[,;\\s])wait=(\\d+)");
+
   @Autowired
   private BosunInternalService bosunInternalService;
 
+  @Value("${bosun.bundle.longpolling.max.wait.seconds}")
+  private long maxWaitSeconds;
+
   @GetMapping(value = "/bundle.tar.gz")
-  public ResponseEntity<byte[]> getBundle() {
-    return ResponseEntity.ok().header("Content-Type", "application/gzip").header("Content-Disposition", "attachment;filename=bundle.tar.gz").body(bosunInternalService.getBundle().toByteArray());
+  public DeferredResult<ResponseEntity<Resource>> getBundle(
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @RequestHeader(value = "Prefer", required = false) String prefer) {
+    String revision = getRevision(ifNoneMatch);
+    PolicyBundle bundle = bosunInternalService.getBundle();
+    boolean notModified = bundle.getRevision().equals(revision);
+    long waitSeconds = getWaitSeconds(prefer);
+
+    if (!notModified) {
+      DeferredResult<ResponseEntity<Resource>> result = new DeferredResult<>();
+      result.setResult(getResponse(bosunInternalService.getBundle(revision), false));
+      return result;
+    } else if (waitSeconds <= 0) {
+      DeferredResult<ResponseEntity<Resource>> result = new DeferredResult<>();
+      result.setResult(getResponse(bundle, true));
+      return result;
+    }
+
+    CompletableFuture<PolicyBundle> next = bosunInternalService.getNextBundle(revision);
+    DeferredResult<ResponseEntity<Resource>> result = new DeferredResult<>(
+        TimeUnit.SECONDS.toMillis(waitSeconds), () -> getResponse(bundle, true));
+    result.onCompletion(() -> next.cancel(false));
+    next.thenAccept(nextBundle -> result.setResult(getResponse(nextBundle, false)));
+    return result;
+  }
+
+  /*
+   * OPA sends the ETag of its active bundle, which is used as the base of a delta bundle.
+   */
+  private static String getRevision(String ifNoneMatch) {
+    if (ifNoneMatch == null) {
+      return null;
+    }
+    String etag = ifNoneMatch.split(",")[0].trim();
+    if (etag.startsWith("W/")) {
+      etag = etag.substring(2);
+    }
+    return etag.replace("\"", "");
+  }
+
+  private long getWaitSeconds(String prefer) {
+    if (prefer == null) {
+      return 0;
+    }
+    Matcher matcher = PREFER_WAIT.matcher(prefer);
+    return matcher.find() ? Math.min(Long.parseLong(matcher.group(1)), maxWaitSeconds) : 0;
+  }
+
+  private static ResponseEntity<Resource> getResponse(PolicyBundle bundle, boolean notModified) {
+    if (notModified) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(bundle.getETag())
+          .header("Content-Type", BUNDLE_CONTENT_TYPE).build();
+    }
+    return ResponseEntity.ok().eTag(bundle.getETag()).header("Content-Type", BUNDLE_CONTENT_TYPE).header("Content-Disposition", "attachment;filename=bundle.tar.gz").body(bundle.getContent());
   }
   
 }
@@ -5,11 +5,18 @@ import java.util.List;
 import java.util.Map;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import net.boomerangplatform.model.Result;
 
 @Document(collection = "bosun_activities")
+@CompoundIndexes({
+    @CompoundIndex(name = "policyId_referenceId_createdDate",
+        def = "{'policyId': 1, 'referenceId': 1, 'createdDate': -1}"),
+    @CompoundIndex(name = "teamId_valid_createdDate",
+        def = "{'teamId': 1, 'valid': 1, 'createdDate': 1}")})
 public class PolicyActivityEntity {
 
   @Id private String id;
@@ -26,6 +26,8 @@ public class PolicyEntity {
 
   private Status status;
 
+  private Long revision;
+
   public String getId() {
     return id;
   }
@@ -81,4 +83,12 @@ public class PolicyEntity {
   public void setScope(Scope scope) {
     this.scope = scope;
   }
+
+  public Long getRevision() {
+    return revision;
+  }
+
+  public void setRevision(Long revision) {
+    this.revision = revision;
+  }
 }
@@ -0,0 +1,143 @@
+package net.boomerangplatform.entity;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import net.boomerangplatform.model.JobStatus;
+
+@Document(collection = "bosun_validation_jobs")
+@CompoundIndex(name = "status_createdDate", def = "{'status': 1, 'createdDate': 1}")
+public class PolicyValidationJobEntity {
+
+  @Id private String id;
+  private JobStatus status;
+  private String policyId;
+  private String referenceId;
+  /* Serialized PolicyValidation, the input data is free form JSON Mongo can't map back. */
+  private String validation;
+  private String activityId;
+  private String error;
+  private String owner;
+  private Integer attempts;
+  private Date createdDate;
+  private Date startedDate;
+  private Date completedDate;
+  private Date leaseExpiryDate;
+  /* A requeued job is not claimed again before this date. */
+  private Date retryDate;
+
+  public String getId() {
+    return id;
+  }
+
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  public JobStatus getStatus() {
+    return status;
+  }
+
+  public void setStatus(JobStatus status) {
+    this.status = status;
+  }
+
+  public String getPolicyId() {
+    return policyId;
+  }
+
+  public void setPolicyId(String policyId) {
+    this.policyId = policyId;
+  }
+
+  public String getReferenceId() {
+    return referenceId;
+  }
+
+  public void setReferenceId(String referenceId) {
+    this.referenceId = referenceId;
+  }
+
+  public String getValidation() {
+    return validation;
+  }
+
+  public void setValidation(String validation) {
+    this.validation = validation;
+  }
+
+  public String getActivityId() {
+    return activityId;
+  }
+
+  public void setActivityId(String activityId) {
+    this.activityId = activityId;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public void setError(String error) {
+    this.error = error;
+  }
+
+  public String getOwner() {
+    return owner;
+  }
+
+  public void setOwner(String owner) {
+    this.owner = owner;
+  }
+
+  public Integer getAttempts() {
+    return attempts;
+  }
+
+  public void setAttempts(Integer attempts) {
+    this.attempts = attempts;
+  }
+
+  public Date getCreatedDate() {
+    return createdDate;
+  }
+
+  public void setCreatedDate(Date createdDate) {
+    this.createdDate = createdDate;
+  }
+
+  public Date getStartedDate() {
+    return startedDate;
+  }
+
+  public void setStartedDate(Date startedDate) {
+    this.startedDate = startedDate;
+  }
+
+  public Date getCompletedDate() {
+    return completedDate;
+  }
+
+  public void setCompletedDate(Date completedDate) {
+    this.completedDate = completedDate;
+  }
+
+  public Date getLeaseExpiryDate() {
+    return leaseExpiryDate;
+  }
+
+  public void setLeaseExpiryDate(Date leaseExpiryDate) {
+    this.leaseExpiryDate = leaseExpiryDate;
+  }
+
+  public Date getRetryDate() {
+    return retryDate;
+  }
+
+  public void setRetryDate(Date retryDate) {
+    this.retryDate = retryDate;
+  }
+}
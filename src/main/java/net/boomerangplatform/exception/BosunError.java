@@ -6,7 +6,17 @@ public enum BosunError {
 
   CUSTOM_ERROR(0, "{0}"),
 	POLICY_NOT_FOUND(0, "No Policy found with ID of {0}"),
-	POLICY_DELETED(0, "Policy with ID of {0} is marked as deleted.");
+	POLICY_DELETED(0, "Policy with ID of {0} is marked as deleted."),
+	BATCH_TOO_LARGE(0, "Batch of {0} validations exceeds the maximum of {1}."),
+	JOB_NOT_FOUND(0, "No validation job found with ID of {0}"),
+	JOB_NOT_COMPLETED(0, "Validation job with ID of {0} is {1}."),
+	JOB_ATTEMPTS_EXCEEDED(0, "Validation job with ID of {0} exceeded {1} attempts."),
+	JOB_VALIDATION_INVALID(0, "Validation job with ID of {0} has no readable validation."),
+	OPA_CIRCUIT_OPEN(0, "OPA circuit breaker {0} is open, policy evaluation is rejected."),
+	OPA_BULKHEAD_FULL(0, "OPA bulkhead {0} is full with {1} concurrent evaluations."),
+	VIOLATIONS_CURSOR_INVALID(0, "Violations cursor {0} is not valid."),
+	VIOLATIONS_LATEST_DISABLED(0, "Paged violations need bosun.violations.latest.enabled."),
+	VIOLATIONS_LATEST_NOT_READY(0, "Paged violations are unavailable until the latest activity collection is rebuilt.");
 
   private final int code;
   private final String message;
@@ -0,0 +1,15 @@
+package net.boomerangplatform.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class BosunUnavailableException extends BosunException {
+
+  private static final long serialVersionUID = 1L;
+
+  public BosunUnavailableException(String message) {
+    super(message);
+  }
+
+}
@@ -0,0 +1,5 @@
+package net.boomerangplatform.model;
+
+public enum JobStatus {
+  queued, running, completed, failed //NOSONAR
+}
@@ -0,0 +1,107 @@
+package net.boomerangplatform.model;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PolicyValidationJob implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private String id;
+  private JobStatus status;
+  private String policyId;
+  private String referenceId;
+  private String activityId;
+  private String error;
+  private Integer attempts;
+  private Date createdDate;
+  private Date startedDate;
+  private Date completedDate;
+
+  public PolicyValidationJob() {
+    // Do nothing
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  public JobStatus getStatus() {
+    return status;
+  }
+
+  public void setStatus(JobStatus status) {
+    this.status = status;
+  }
+
+  public String getPolicyId() {
+    return policyId;
+  }
+
+  public void setPolicyId(String policyId) {
+    this.policyId = policyId;
+  }
+
+  public String getReferenceId() {
+    return referenceId;
+  }
+
+  public void setReferenceId(String referenceId) {
+    this.referenceId = referenceId;
+  }
+
+  public String getActivityId() {
+    return activityId;
+  }
+
+  public void setActivityId(String activityId) {
+    this.activityId = activityId;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public void setError(String error) {
+    this.error = error;
+  }
+
+  public Integer getAttempts() {
+    return attempts;
+  }
+
+  public void setAttempts(Integer attempts) {
+    this.attempts = attempts;
+  }
+
+  public Date getCreatedDate() {
+    return createdDate == null ? null : (Date) createdDate.clone();
+  }
+
+  public void setCreatedDate(Date createdDate) {
+    this.createdDate = createdDate == null ? null : (Date) createdDate.clone();
+  }
+
+  public Date getStartedDate() {
+    return startedDate == null ? null : (Date) startedDate.clone();
+  }
+
+  public void setStartedDate(Date startedDate) {
+    this.startedDate = startedDate == null ? null : (Date) startedDate.clone();
+  }
+
+  public Date getCompletedDate() {
+    return completedDate == null ? null : (Date) completedDate.clone();
+  }
+
+  public void setCompletedDate(Date completedDate) {
+    this.completedDate = completedDate == null ? null : (Date) completedDate.clone();
+  }
+}
@@ -0,0 +1,49 @@
+package net.boomerangplatform.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import net.boomerangplatform.entity.PolicyActivityEntity;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PolicyValidationResult {
+
+  private String policyId;
+  private String referenceId;
+  private PolicyActivityEntity activity;
+  private String error;
+
+  public PolicyValidationResult() {
+    // Do nothing
+  }
+
+  public String getPolicyId() {
+    return policyId;
+  }
+
+  public void setPolicyId(String policyId) {
+    this.policyId = policyId;
+  }
+
+  public String getReferenceId() {
+    return referenceId;
+  }
+
+  public void setReferenceId(String referenceId) {
+    this.referenceId = referenceId;
+  }
+
+  public PolicyActivityEntity getActivity() {
+    return activity;
+  }
+
+  public void setActivity(PolicyActivityEntity activity) {
+    this.activity = activity;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public void setError(String error) {
+    this.error = error;
+  }
+}
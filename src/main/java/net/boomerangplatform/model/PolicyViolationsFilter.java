@@ -0,0 +1,60 @@
+package net.boomerangplatform.model;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PolicyViolationsFilter {
+
+  private String teamId;
+  private List<String> policyIds = new ArrayList<>();
+  private Map<String, String> labels = new LinkedHashMap<>();
+  private Date from;
+  private Date to;
+
+  public PolicyViolationsFilter() {
+    // Do nothing
+  }
+
+  public String getTeamId() {
+    return teamId;
+  }
+
+  public void setTeamId(String teamId) {
+    this.teamId = teamId;
+  }
+
+  public List<String> getPolicyIds() {
+    return policyIds;
+  }
+
+  public void setPolicyIds(List<String> policyIds) {
+    this.policyIds = policyIds == null ? new ArrayList<>() : policyIds;
+  }
+
+  public Map<String, String> getLabels() {
+    return labels;
+  }
+
+  public void setLabels(Map<String, String> labels) {
+    this.labels = labels == null ? new LinkedHashMap<>() : labels;
+  }
+
+  public Date getFrom() {
+    return from;
+  }
+
+  public void setFrom(Date from) {
+    this.from = from;
+  }
+
+  public Date getTo() {
+    return to;
+  }
+
+  public void setTo(Date to) {
+    this.to = to;
+  }
+}
@@ -0,0 +1,32 @@
+package net.boomerangplatform.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PolicyViolationsPage {
+
+  private List<PolicyViolations> violations = new ArrayList<>();
+  private String nextCursor;
+
+  public PolicyViolationsPage() {
+    // Do nothing
+  }
+
+  public List<PolicyViolations> getViolations() {
+    return violations;
+  }
+
+  public void setViolations(List<PolicyViolations> violations) {
+    this.violations = violations;
+  }
+
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  public void setNextCursor(String nextCursor) {
+    this.nextCursor = nextCursor;
+  }
+}
@@ -0,0 +1,15 @@
+package net.boomerangplatform.opa.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class OPAUnavailableException extends OPAClientException {
+
+  private static final long serialVersionUID = 1L;
+
+  public OPAUnavailableException(String message) {
+    super(message);
+  }
+
+}
@@ -0,0 +1,19 @@
+package net.boomerangplatform.opa.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AggregateDataRequest {
+
+  @JsonProperty("input")
+  private AggregateDataRequestInput input;
+
+  public AggregateDataRequestInput getInput() {
+    return input;
+  }
+
+  public void setInput(AggregateDataRequestInput input) {
+    this.input = input;
+  }
+}
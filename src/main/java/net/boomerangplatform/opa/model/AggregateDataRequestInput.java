@@ -0,0 +1,21 @@
+package net.boomerangplatform.opa.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AggregateDataRequestInput {
+
+  @JsonProperty("evaluations")
+  private Map<String, DataRequestInput> evaluations = new LinkedHashMap<>();
+
+  public Map<String, DataRequestInput> getEvaluations() {
+    return evaluations;
+  }
+
+  public void setEvaluations(Map<String, DataRequestInput> evaluations) {
+    this.evaluations = evaluations;
+  }
+}
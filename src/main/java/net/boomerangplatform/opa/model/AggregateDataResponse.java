@@ -0,0 +1,19 @@
+package net.boomerangplatform.opa.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AggregateDataResponse {
+
+  @JsonProperty("result")
+  private AggregateDataResponseResult result;
+
+  public AggregateDataResponseResult getResult() {
+    return result;
+  }
+
+  public void setResult(AggregateDataResponseResult result) {
+    this.result = result;
+  }
+}
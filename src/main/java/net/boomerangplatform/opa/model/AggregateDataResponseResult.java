@@ -0,0 +1,20 @@
+package net.boomerangplatform.opa.model;
+
+import java.util.Map;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AggregateDataResponseResult {
+
+  @JsonProperty("results")
+  private Map<String, DataResponseResult> results;
+
+  public Map<String, DataResponseResult> getResults() {
+    return results;
+  }
+
+  public void setResults(Map<String, DataResponseResult> results) {
+    this.results = results;
+  }
+}
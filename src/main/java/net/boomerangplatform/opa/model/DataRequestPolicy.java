@@ -25,6 +25,13 @@ public class DataRequestPolicy {
   @JsonProperty("order")
   private String order;
 
+  @JsonProperty("policyId")
+  private String policyId;
+
+  @JsonProperty("revision")
+  private Long revision;
+
+  @JsonInclude(JsonInclude.Include.NON_EMPTY)
   @JsonProperty("rules")
   private List<Map<String, String>> rules = new ArrayList<>();
 
@@ -68,6 +75,22 @@ public class DataRequestPolicy {
     this.order = order;
   }
 
+  public String getPolicyId() {
+    return policyId;
+  }
+
+  public void setPolicyId(String policyId) {
+    this.policyId = policyId;
+  }
+
+  public Long getRevision() {
+    return revision;
+  }
+
+  public void setRevision(Long revision) {
+    this.revision = revision;
+  }
+
   public List<Map<String, String>> getRules() {
     return Collections.unmodifiableList(rules);
   }
@@ -0,0 +1,36 @@
+package net.boomerangplatform.opa.model;
+
+import java.util.function.IntPredicate;
+
+public enum ThresholdOperator {
+
+  EQUAL("equal", c -> c == 0), NOT_EQUAL("not equal", c -> c != 0), LESS_THAN("less than",
+      c -> c < 0), LESS_THAN_OR_EQUAL("less than or equal", c -> c <= 0), GREATER_THAN(
+          "greater than", c -> c > 0), GREATER_THAN_OR_EQUAL("greater than or equal", c -> c >= 0);
+
+  private final String operator;
+
+  private final IntPredicate comparison;
+
+  ThresholdOperator(String operator, IntPredicate comparison) {
+    this.operator = operator;
+    this.comparison = comparison;
+  }
+
+  public String getOperator() {
+    return operator;
+  }
+
+  public boolean test(int comparison) {
+    return this.comparison.test(comparison);
+  }
+
+  public static ThresholdOperator fromOperator(String operator) {
+    for (ThresholdOperator type : values()) {
+      if (type.operator.equals(operator)) {
+        return type;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,65 @@
+package net.boomerangplatform.opa.service;
+
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Generates the bosun_aggregate rego module, which evaluates every template package of a policy
+ * in a single query. Each entry of input.evaluations has the same shape as the input of a single
+ * template query and its result is the template package document.
+ *
+ * <p>An entry may reference a policy revision instead of carrying its rules, in which case the
+ * rules are read from the bosun_policies document of the bundle. The entry has no result when the
+ * loaded bundle does not have that revision.
+ */
+public final class AggregatePolicy {
+
+  public static final String KEY = "bosun_aggregate";
+
+  public static final String POLICIES = "bosun_policies";
+
+  private static final Pattern PACKAGE_NAME = Pattern.compile("[a-zA-Z_][a-zA-Z0-9_]*");
+
+  private AggregatePolicy() {}
+
+  public static boolean supports(String templateKey) {
+    return templateKey != null && !KEY.equals(templateKey) && !POLICIES.equals(templateKey)
+        && PACKAGE_NAME.matcher(templateKey).matches();
+  }
+
+  public static String getRego(Collection<String> templateKeys) {
+    StringBuilder rego = new StringBuilder();
+    rego.append("package ").append(KEY).append("\n");
+
+    for (String templateKey : new TreeSet<>(templateKeys)) {
+      if (!supports(templateKey)) {
+        continue;
+      }
+
+      rego.append("\nresults[id] = result {\n");
+      rego.append("    evaluation := input.evaluations[id]\n");
+      rego.append("    evaluation.policy.key == \"").append(templateKey).append("\"\n");
+      rego.append("    not evaluation.policy.policyId\n");
+      rego.append("    result := data.").append(templateKey)
+          .append(" with input as evaluation\n");
+      rego.append("}\n");
+
+      rego.append("\nresults[id] = result {\n");
+      rego.append("    evaluation := input.evaluations[id]\n");
+      rego.append("    evaluation.policy.key == \"").append(templateKey).append("\"\n");
+      rego.append("    policy := data.").append(POLICIES)
+          .append("[evaluation.policy.policyId]\n");
+      rego.append("    policy.revision == evaluation.policy.revision\n");
+      rego.append("    rules := policy.definitions[evaluation.policy.id]\n");
+      rego.append("    result := data.").append(templateKey).append(" with input as {\n");
+      rego.append("        \"policy\": {\"id\": evaluation.policy.id, ")
+          .append("\"key\": evaluation.policy.key, \"rules\": rules},\n");
+      rego.append("        \"data\": evaluation.data\n");
+      rego.append("    }\n");
+      rego.append("}\n");
+    }
+
+    return rego.toString();
+  }
+}
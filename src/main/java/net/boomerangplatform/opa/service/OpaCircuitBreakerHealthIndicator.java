@@ -0,0 +1,37 @@
+package net.boomerangplatform.opa.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+/*
+ * Reports the breaker as details only. OPA recovers by pulling its bundle from this service, so an
+ * open breaker must not take the service's own health down.
+ */
+@Component
+public class OpaCircuitBreakerHealthIndicator implements HealthIndicator {
+
+  @Autowired
+  private CircuitBreaker opaCircuitBreaker;
+
+  @Autowired
+  private Bulkhead opaBulkhead;
+
+  @Override
+  public Health health() {
+    CircuitBreaker.State state = opaCircuitBreaker.getState();
+    CircuitBreaker.Metrics metrics = opaCircuitBreaker.getMetrics();
+
+    return Health.up().withDetail("state", state)
+        .withDetail("failureRate", metrics.getFailureRate())
+        .withDetail("slowCallRate", metrics.getSlowCallRate())
+        .withDetail("bufferedCalls", metrics.getNumberOfBufferedCalls())
+        .withDetail("notPermittedCalls", metrics.getNumberOfNotPermittedCalls())
+        .withDetail("availableConcurrentCalls",
+            opaBulkhead.getMetrics().getAvailableConcurrentCalls())
+        .build();
+  }
+}
@@ -0,0 +1,45 @@
+package net.boomerangplatform.opa.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class OpaEndpoint {
+
+  private final String baseUrl;
+
+  private final AtomicInteger outstanding = new AtomicInteger();
+
+  private volatile boolean healthy = true;
+
+  public OpaEndpoint(String baseUrl) {
+    this.baseUrl = baseUrl;
+  }
+
+  public String getBaseUrl() {
+    return baseUrl;
+  }
+
+  public int getOutstanding() {
+    return outstanding.get();
+  }
+
+  public void acquire() {
+    outstanding.incrementAndGet();
+  }
+
+  public void release() {
+    outstanding.decrementAndGet();
+  }
+
+  public boolean isHealthy() {
+    return healthy;
+  }
+
+  public void setHealthy(boolean healthy) {
+    this.healthy = healthy;
+  }
+
+  @Override
+  public String toString() {
+    return baseUrl;
+  }
+}
@@ -0,0 +1,83 @@
+package net.boomerangplatform.opa.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import org.springframework.util.StringUtils;
+
+/**
+ * OPA instances that evaluate policies. Requests are routed with the power of two choices: two
+ * random healthy endpoints are sampled and the one with fewer outstanding requests is used.
+ */
+public class OpaEndpointPool {
+
+  private final List<OpaEndpoint> endpoints;
+
+  public OpaEndpointPool(List<String> baseUrls) {
+    List<OpaEndpoint> configured = baseUrls.stream().filter(StringUtils::hasText)
+        .map(String::trim).distinct().map(OpaEndpoint::new).collect(Collectors.toList());
+    if (configured.isEmpty()) {
+      throw new IllegalArgumentException("At least one OPA endpoint is required");
+    }
+    this.endpoints = Collections.unmodifiableList(configured);
+  }
+
+  public List<OpaEndpoint> getEndpoints() {
+    return endpoints;
+  }
+
+  /*
+   * Falls back to every endpoint when none is healthy, so the circuit breaker rather than the
+   * health check decides whether OPA is unavailable.
+   */
+  public OpaEndpoint choose() {
+    List<OpaEndpoint> candidates = getCandidates();
+    int size = candidates.size();
+    if (size == 1) {
+      return candidates.get(0);
+    }
+
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int first = random.nextInt(size);
+    int second = random.nextInt(size - 1);
+    if (second >= first) {
+      second++;
+    }
+
+    OpaEndpoint firstEndpoint = candidates.get(first);
+    OpaEndpoint secondEndpoint = candidates.get(second);
+    return firstEndpoint.getOutstanding() <= secondEndpoint.getOutstanding() ? firstEndpoint
+        : secondEndpoint;
+  }
+
+  /*
+   * Returns the endpoint other than the given one with the fewest outstanding requests, or null
+   * when there is no other endpoint.
+   */
+  public OpaEndpoint chooseOther(OpaEndpoint excluded) {
+    OpaEndpoint chosen = null;
+    for (OpaEndpoint endpoint : getCandidates()) {
+      if (endpoint != excluded
+          && (chosen == null || endpoint.getOutstanding() < chosen.getOutstanding())) {
+        chosen = endpoint;
+      }
+    }
+    return chosen;
+  }
+
+  private List<OpaEndpoint> getCandidates() {
+    if (endpoints.size() == 1) {
+      return endpoints;
+    }
+
+    List<OpaEndpoint> healthy = new ArrayList<>(endpoints.size());
+    for (OpaEndpoint endpoint : endpoints) {
+      if (endpoint.isHealthy()) {
+        healthy.add(endpoint);
+      }
+    }
+    return healthy.isEmpty() ? endpoints : healthy;
+  }
+}
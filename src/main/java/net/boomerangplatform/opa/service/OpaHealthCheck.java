@@ -0,0 +1,51 @@
+package net.boomerangplatform.opa.service;
+
+import java.net.URI;
+import java.time.Duration;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Polls the OPA health API of every endpoint. With the bundles parameter OPA only reports healthy
+ * once its bundles are activated, so instances still loading a bundle are skipped by the pool.
+ */
+@Component
+public class OpaHealthCheck {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  @Value("${opa.rest.url.health}")
+  private String opaRestHealthUrl;
+
+  @Value("${opa.health.timeout.ms}")
+  private long timeout;
+
+  @Autowired
+  private OpaEndpointPool opaEndpointPool;
+
+  @Autowired
+  private WebClient opaWebClient;
+
+  @Scheduled(fixedDelayString = "${opa.health.interval.ms}")
+  public void checkEndpoints() {
+    for (OpaEndpoint endpoint : opaEndpointPool.getEndpoints()) {
+      String url = URI.create(endpoint.getBaseUrl()).resolve(opaRestHealthUrl).toString();
+
+      opaWebClient.get().uri(url).retrieve().bodyToMono(String.class).map(body -> true)
+          .defaultIfEmpty(true).timeout(Duration.ofMillis(timeout)).onErrorReturn(false)
+          .subscribe(healthy -> setHealthy(endpoint, healthy));
+    }
+  }
+
+  private static void setHealthy(OpaEndpoint endpoint, boolean healthy) {
+    if (endpoint.isHealthy() != healthy) {
+      LOGGER.info("OPA endpoint {} is {}", endpoint, healthy ? "healthy" : "unhealthy");
+    }
+    endpoint.setHealthy(healthy);
+  }
+}
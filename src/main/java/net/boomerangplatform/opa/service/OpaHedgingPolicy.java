@@ -0,0 +1,92 @@
+package net.boomerangplatform.opa.service;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+/**
+ * Decides when a duplicate OPA request is sent. The hedge delay follows the configured percentile
+ * of recent OPA response times, bounded by the minimum and maximum delay.
+ */
+@Component
+public class OpaHedgingPolicy {
+
+  private static final long DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Value("${opa.hedging.enabled}")
+  private boolean enabled;
+
+  @Value("${opa.hedging.percentile}")
+  private double percentile;
+
+  @Value("${opa.hedging.delay.min.ms}")
+  private long minDelay;
+
+  @Value("${opa.hedging.delay.max.ms}")
+  private long maxDelay;
+
+  private Timer latency;
+
+  private Counter fired;
+
+  private Counter won;
+
+  private volatile Duration delay;
+
+  private volatile long delayComputedAt;
+
+  @PostConstruct
+  public void init() {
+    latency = Timer.builder("bosun.opa.requests").publishPercentiles(percentile)
+        .register(meterRegistry);
+    fired = Counter.builder("bosun.opa.hedges").tag("outcome", "fired").register(meterRegistry);
+    won = Counter.builder("bosun.opa.hedges").tag("outcome", "won").register(meterRegistry);
+    delay = Duration.ofMillis(maxDelay);
+    delayComputedAt = System.nanoTime();
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void record(long nanos) {
+    latency.record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void hedgeFired() {
+    fired.increment();
+  }
+
+  public void hedgeWon() {
+    won.increment();
+  }
+
+  public Duration getDelay() {
+    long now = System.nanoTime();
+    if (now - delayComputedAt > DELAY_REFRESH_NANOS) {
+      delayComputedAt = now;
+      delay = computeDelay();
+    }
+    return delay;
+  }
+
+  private Duration computeDelay() {
+    long millis = maxDelay;
+    for (ValueAtPercentile value : latency.takeSnapshot().percentileValues()) {
+      if (value.percentile() == percentile && value.value(TimeUnit.MILLISECONDS) > 0) {
+        millis = (long) Math.ceil(value.value(TimeUnit.MILLISECONDS));
+      }
+    }
+    return Duration.ofMillis(Math.max(minDelay, Math.min(maxDelay, millis)));
+  }
+}
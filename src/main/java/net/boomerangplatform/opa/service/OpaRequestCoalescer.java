@@ -0,0 +1,119 @@
+package net.boomerangplatform.opa.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.hash.Hashing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Collapses concurrent identical OPA queries into one call. Queries are keyed by a hash of their
+ * input serialized with sorted keys, and every caller waiting on the same key shares the response
+ * of the first caller. A key is released as soon as its call completes, so responses are never
+ * reused for later queries.
+ */
+@Component
+public class OpaRequestCoalescer {
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Value("${opa.singleflight.enabled}")
+  private boolean enabled;
+
+  private final ObjectMapper mapper =
+      new ObjectMapper().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+  private final Map<String, CompletableFuture<Object>> flights = new ConcurrentHashMap<>();
+
+  private Counter coalesced;
+
+  @PostConstruct
+  public void init() {
+    coalesced = Counter.builder("bosun.opa.coalesced").register(meterRegistry);
+  }
+
+  @SuppressWarnings("unchecked")
+  public <T> T execute(Object input, Supplier<T> call) {
+    String key = getKey(input);
+    if (key == null) {
+      return call.get();
+    }
+
+    CompletableFuture<Object> flight = new CompletableFuture<>();
+    CompletableFuture<Object> existing = flights.putIfAbsent(key, flight);
+    if (existing != null) {
+      coalesced.increment();
+      try {
+        return (T) existing.join();
+      } catch (CompletionException e) {
+        throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+      }
+    }
+
+    try {
+      T result = call.get();
+      flights.remove(key, flight);
+      flight.complete(result);
+      return result;
+    } catch (RuntimeException e) {
+      flights.remove(key, flight);
+      flight.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  public <T> CompletableFuture<T> executeAsync(Object input, Supplier<CompletableFuture<T>> call) {
+    String key = getKey(input);
+    if (key == null) {
+      return call.get();
+    }
+
+    CompletableFuture<Object> flight = new CompletableFuture<>();
+    CompletableFuture<Object> existing = flights.putIfAbsent(key, flight);
+    if (existing != null) {
+      coalesced.increment();
+      return (CompletableFuture<T>) existing.copy();
+    }
+
+    try {
+      call.get().whenComplete((result, e) -> {
+        flights.remove(key, flight);
+        if (e != null) {
+          flight.completeExceptionally(e);
+        } else {
+          flight.complete(result);
+        }
+      });
+    } catch (RuntimeException e) {
+      flights.remove(key, flight);
+      flight.completeExceptionally(e);
+    }
+    return (CompletableFuture<T>) flight.copy();
+  }
+
+  private String getKey(Object input) {
+    if (!enabled || input == null) {
+      return null;
+    }
+
+    try {
+      Object canonical = mapper.convertValue(input, Object.class);
+      return input.getClass().getSimpleName() + ":"
+          + Hashing.sha256().hashBytes(mapper.writeValueAsBytes(canonical)).toString();
+    } catch (JsonProcessingException | IllegalArgumentException e) {
+      return null;
+    }
+  }
+}
@@ -1,47 +1,101 @@
 package net.boomerangplatform.opa.service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import net.boomerangplatform.exception.BosunError;
 import net.boomerangplatform.opa.exception.OPAClientException;
+import net.boomerangplatform.opa.exception.OPAUnavailableException;
+import net.boomerangplatform.opa.model.AggregateDataRequest;
+import net.boomerangplatform.opa.model.AggregateDataResponse;
 import net.boomerangplatform.opa.model.DataRequest;
 import net.boomerangplatform.opa.model.DataResponse;
+import reactor.core.publisher.Mono;
 
 @Component
 public class OpenPolicyAgentClient {
 
   private static final Logger LOGGER = LogManager.getLogger();
 
-  @Value("${opa.rest.url.base}")
-  public String opaBaseUrl;
-
   @Value("${opa.rest.url.data}")
   public String opaRestDataUrl;
 
   @Autowired
+  private OpaEndpointPool opaEndpointPool;
+
+  @Autowired
+  @Qualifier("opaRestTemplate")
   private RestTemplate restTemplate;
 
+  @Autowired
+  private WebClient opaWebClient;
+
+  @Autowired
+  private CircuitBreaker opaCircuitBreaker;
+
+  @Autowired
+  private Bulkhead opaBulkhead;
+
+  @Autowired
+  private OpaHedgingPolicy opaHedgingPolicy;
+
+  @Autowired
+  private OpaRequestCoalescer opaRequestCoalescer;
+
   public DataResponse validateData(DataRequest dataRequest) {
+    if (opaHedgingPolicy.isEnabled()) {
+      return join(validateDataAsync(dataRequest));
+    }
+    return opaRequestCoalescer.execute(dataRequest.getInput(),
+        () -> guard(() -> postBlocking(dataRequest.getInput().getPolicy().getKey(), dataRequest,
+            DataResponse.class)));
+  }
+
+  public AggregateDataResponse validateAggregateData(AggregateDataRequest dataRequest) {
+    if (opaHedgingPolicy.isEnabled()) {
+      return join(validateAggregateDataAsync(dataRequest));
+    }
+    return opaRequestCoalescer.execute(dataRequest.getInput(), () -> guard(
+        () -> postBlocking(AggregatePolicy.KEY, dataRequest, AggregateDataResponse.class)));
+  }
+
+  private <T> T postBlocking(String key, Object body, Class<T> responseType) {
 
     final HttpHeaders headers = new HttpHeaders();
     headers.add("Content-Type", "application/json");
-    final String url =
-        opaBaseUrl + opaRestDataUrl + "/" + dataRequest.getInput().getPolicy().getKey();
 
-    final HttpEntity<DataRequest> request = new HttpEntity<>(dataRequest, headers);
-    ResponseEntity<DataResponse> response = null;
+    final OpaEndpoint endpoint = opaEndpointPool.choose();
+    final String url = endpoint.getBaseUrl() + opaRestDataUrl + "/" + key;
+
+    final HttpEntity<Object> request = new HttpEntity<>(body, headers);
+    ResponseEntity<T> response = null;
+    endpoint.acquire();
+    long start = System.nanoTime();
     try {
-      response = restTemplate.exchange(url, HttpMethod.POST, request, DataResponse.class);
+      response = restTemplate.exchange(url, HttpMethod.POST, request, responseType);
+      opaHedgingPolicy.record(System.nanoTime() - start);
     } catch (final RestClientException e) {
       LOGGER.error(e.getMessage(), e);
+    } finally {
+      endpoint.release();
     }
 
     if (response == null) {
@@ -50,4 +104,105 @@ public class OpenPolicyAgentClient {
 
     return response.getBody();
   }
+
+  public CompletableFuture<DataResponse> validateDataAsync(DataRequest dataRequest) {
+    return opaRequestCoalescer.executeAsync(dataRequest.getInput(),
+        () -> post(dataRequest.getInput().getPolicy().getKey(), dataRequest, DataResponse.class));
+  }
+
+  public CompletableFuture<AggregateDataResponse> validateAggregateDataAsync(
+      AggregateDataRequest dataRequest) {
+    return opaRequestCoalescer.executeAsync(dataRequest.getInput(),
+        () -> post(AggregatePolicy.KEY, dataRequest, AggregateDataResponse.class));
+  }
+
+  private <T> CompletableFuture<T> post(String key, Object body, Class<T> responseType) {
+    CompletableFuture<T> response = new CompletableFuture<>();
+    try {
+      Bulkhead
+          .decorateCompletionStage(opaBulkhead,
+              CircuitBreaker.decorateCompletionStage(opaCircuitBreaker,
+                  () -> postAsync(key, body, responseType)))
+          .get().whenComplete((result, e) -> {
+            if (e != null) {
+              response.completeExceptionally(getRejection(e));
+            } else {
+              response.complete(result);
+            }
+          });
+    } catch (RuntimeException e) {
+      response.completeExceptionally(getRejection(e));
+    }
+    return response;
+  }
+
+  /*
+   * With hedging enabled a duplicate request is sent to another endpoint once the primary request
+   * exceeds the hedge delay, and the first response wins. Failed hedges are ignored so the primary
+   * request decides the outcome.
+   */
+  private <T> CompletableFuture<T> postAsync(String key, Object body, Class<T> responseType) {
+    final OpaEndpoint endpoint = opaEndpointPool.choose();
+    Mono<T> response = exchange(endpoint, key, body, responseType);
+
+    OpaEndpoint hedgeEndpoint =
+        opaHedgingPolicy.isEnabled() ? opaEndpointPool.chooseOther(endpoint) : null;
+    if (hedgeEndpoint != null) {
+      Mono<T> hedge = Mono.delay(opaHedgingPolicy.getDelay())
+          .doOnNext(tick -> opaHedgingPolicy.hedgeFired())
+          .then(exchange(hedgeEndpoint, key, body, responseType))
+          .doOnNext(result -> opaHedgingPolicy.hedgeWon()).onErrorResume(e -> Mono.never());
+      response = Mono.first(response, hedge);
+    }
+
+    return response.toFuture();
+  }
+
+  private <T> Mono<T> exchange(OpaEndpoint endpoint, String key, Object body,
+      Class<T> responseType) {
+    final String url = endpoint.getBaseUrl() + opaRestDataUrl + "/" + key;
+
+    return Mono.defer(() -> {
+      long start = System.nanoTime();
+      return opaWebClient.post().uri(url).contentType(MediaType.APPLICATION_JSON).syncBody(body)
+          .retrieve().bodyToMono(responseType)
+          .doOnSuccess(result -> opaHedgingPolicy.record(System.nanoTime() - start));
+    }).doOnSubscribe(subscription -> endpoint.acquire()).doFinally(signal -> endpoint.release())
+        .onErrorMap(e -> !(e instanceof OPAClientException), e -> {
+          LOGGER.error(e.getMessage(), e);
+          return new OPAClientException("Exception or missing response from OPA!");
+        })
+        .switchIfEmpty(
+            Mono.error(() -> new OPAClientException("Exception or missing response from OPA!")));
+  }
+
+  private <T> T guard(Supplier<T> call) {
+    try {
+      return Bulkhead
+          .decorateSupplier(opaBulkhead, CircuitBreaker.decorateSupplier(opaCircuitBreaker, call))
+          .get();
+    } catch (CallNotPermittedException | BulkheadFullException e) {
+      throw (RuntimeException) getRejection(e);
+    }
+  }
+
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+    }
+  }
+
+  private Throwable getRejection(Throwable e) {
+    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    if (cause instanceof CallNotPermittedException) {
+      return new OPAUnavailableException(
+          BosunError.OPA_CIRCUIT_OPEN.getMessage(opaCircuitBreaker.getName()));
+    } else if (cause instanceof BulkheadFullException) {
+      return new OPAUnavailableException(BosunError.OPA_BULKHEAD_FULL
+          .getMessage(opaBulkhead.getName(), opaBulkhead.getBulkheadConfig().getMaxConcurrentCalls()));
+    }
+    return cause;
+  }
 }
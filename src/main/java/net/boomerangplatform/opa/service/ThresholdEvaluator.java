@@ -0,0 +1,270 @@
+package net.boomerangplatform.opa.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.base.Splitter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import net.boomerangplatform.exception.BosunException;
+import net.boomerangplatform.opa.model.DataResponseResult;
+import net.boomerangplatform.opa.model.DataResponseResultViolation;
+import net.boomerangplatform.opa.model.ThresholdOperator;
+
+/**
+ * Evaluates the threshold templates (static_code_analysis, unit_tests) in process, mirroring
+ * their rego. Returns null whenever the input falls outside what can be reproduced exactly, in
+ * which case the caller should ask OPA.
+ */
+@Component
+public class ThresholdEvaluator {
+
+  private static final String KEY_METRIC = "metric";
+
+  private static final String KEY_OPERATOR = "operator";
+
+  private static final String KEY_VALUE = "value";
+
+  private static final String MEASURES = "measures";
+
+  private static final String ISSUES = "issues";
+
+  private static final Pattern NUMBER = Pattern.compile("-?(0|[1-9]\\d*)(\\.\\d+)?([eE][+-]?\\d+)?");
+
+  private static final Comparator<DataResponseResultViolation> VIOLATION_ORDER =
+      Comparator.comparing(DataResponseResultViolation::getMessage)
+          .thenComparing(DataResponseResultViolation::getMetric);
+
+  private static final Map<String, Function<String, List<List<String>>>> LOOKUPS =
+      new HashMap<>();
+
+  static {
+    LOOKUPS.put("static_code_analysis", ThresholdEvaluator::getStaticCodeAnalysisLookups);
+    LOOKUPS.put("unit_tests", metric -> Collections.singletonList(Arrays.asList(MEASURES, metric)));
+  }
+
+  @Value("${bosun.evaluator.native.templates}")
+  private Set<String> nativeTemplates = new HashSet<>();
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private final Cache<List<Object>, Optional<List<ThresholdRule>>> compiledRules =
+      CacheBuilder.newBuilder().maximumSize(1000).recordStats().build();
+
+  @PostConstruct
+  public void init() {
+    GuavaCacheMetrics.monitor(meterRegistry, compiledRules, "bosun.evaluator.rules");
+  }
+
+  public boolean supports(String templateKey) {
+    return nativeTemplates.contains(templateKey) && LOOKUPS.containsKey(templateKey);
+  }
+
+  public DataResponseResult evaluate(String templateKey, List<Map<String, String>> rules,
+      JsonNode data) {
+    if (data == null || !LOOKUPS.containsKey(templateKey)) {
+      return null;
+    }
+
+    List<ThresholdRule> thresholdRules = getRules(templateKey, rules);
+    if (thresholdRules == null) {
+      return null;
+    }
+
+    TreeMap<DataResponseResultViolation, DataResponseResultViolation> violations =
+        new TreeMap<>(VIOLATION_ORDER);
+
+    for (ThresholdRule rule : thresholdRules) {
+      for (List<String> path : rule.lookups) {
+        JsonNode value = getValue(data, path);
+        if (value == null) {
+          continue;
+        }
+
+        Boolean satisfied = rule.isSatisfied(value);
+        String measured = format(value);
+        if (satisfied == null || measured == null) {
+          return null;
+        }
+
+        if (!satisfied) {
+          DataResponseResultViolation violation = new DataResponseResultViolation();
+          violation.setMetric(rule.metric);
+          violation.setMessage(
+              String.format("%s %s %s was not satisfied", measured, rule.operator, rule.measure));
+          violation.setValid(false);
+          violations.putIfAbsent(violation, violation);
+        }
+      }
+    }
+
+    DataResponseResult result = new DataResponseResult();
+    result.setViolations(new ArrayList<>(violations.keySet()));
+    result.setValid(violations.isEmpty());
+    return result;
+  }
+
+  private List<ThresholdRule> getRules(String templateKey, List<Map<String, String>> rules) {
+    try {
+      return compiledRules
+          .get(Arrays.asList(templateKey, rules), () -> Optional.ofNullable(compile(templateKey,
+              rules)))
+          .orElse(null);
+    } catch (ExecutionException e) {
+      throw new BosunException(e);
+    }
+  }
+
+  private static List<ThresholdRule> compile(String templateKey,
+      List<Map<String, String>> rules) {
+    List<ThresholdRule> thresholdRules = new ArrayList<>();
+    if (rules == null) {
+      return thresholdRules;
+    }
+
+    for (Map<String, String> rule : rules) {
+      if (rule == null || !rule.containsKey(KEY_METRIC) || !rule.containsKey(KEY_OPERATOR)
+          || !rule.containsKey(KEY_VALUE)) {
+        continue;
+      }
+
+      String metric = rule.get(KEY_METRIC);
+      String operator = rule.get(KEY_OPERATOR);
+      String measure = rule.get(KEY_VALUE);
+      if (metric == null || operator == null || measure == null) {
+        return null;
+      }
+
+      thresholdRules
+          .add(new ThresholdRule(metric, operator, measure, LOOKUPS.get(templateKey).apply(metric)));
+    }
+    return thresholdRules;
+  }
+
+  private static List<List<String>> getStaticCodeAnalysisLookups(String metric) {
+    List<List<String>> lookups = new ArrayList<>();
+    lookups.add(Arrays.asList(MEASURES, metric));
+
+    List<String> metricSplit = Splitter.on('-').splitToList(metric);
+    if (metricSplit.size() > 1 && ISSUES.equals(metricSplit.get(0))) {
+      lookups.add(Arrays.asList(ISSUES, metricSplit.get(1)));
+    }
+    return lookups;
+  }
+
+  private static JsonNode getValue(JsonNode data, List<String> path) {
+    JsonNode node = data;
+    for (String field : path) {
+      if (node == null || !node.isObject()) {
+        return null;
+      }
+      node = node.get(field);
+    }
+    return node;
+  }
+
+  private static BigDecimal toNumber(JsonNode node) {
+    if (node.isNumber()) {
+      return node.decimalValue();
+    } else if (node.isNull()) {
+      return BigDecimal.ZERO;
+    } else if (node.isBoolean()) {
+      return node.booleanValue() ? BigDecimal.ONE : BigDecimal.ZERO;
+    } else if (node.isTextual()) {
+      return toNumber(node.textValue());
+    }
+    return null;
+  }
+
+  private static BigDecimal toNumber(String text) {
+    return NUMBER.matcher(text).matches() ? new BigDecimal(text) : null;
+  }
+
+  private static String format(JsonNode node) {
+    if (node.isTextual()) {
+      return node.textValue();
+    } else if (node.isIntegralNumber()) {
+      return node.bigIntegerValue().toString();
+    } else if (node.isFloatingPointNumber()) {
+      return formatFloat(node.doubleValue());
+    } else if (node.isNull() || node.isBoolean()) {
+      return node.asText();
+    }
+    return null;
+  }
+
+  private static String formatFloat(double value) {
+    if (value == 0) {
+      return "0";
+    }
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      return null;
+    }
+
+    BigDecimal decimal = new BigDecimal(Double.toString(value)).stripTrailingZeros();
+    int exponent = decimal.precision() - decimal.scale() - 1;
+
+    // OPA prints floats with Go's %v, which switches to exponent notation outside this range.
+    if (exponent < -4 || exponent >= 6) {
+      return null;
+    }
+    return decimal.toPlainString();
+  }
+
+  private static final class ThresholdRule {
+
+    private final String metric;
+
+    private final String operator;
+
+    private final String measure;
+
+    private final ThresholdOperator thresholdOperator;
+
+    private final BigDecimal threshold;
+
+    private final List<List<String>> lookups;
+
+    private ThresholdRule(String metric, String operator, String measure,
+        List<List<String>> lookups) {
+      this.metric = metric;
+      this.operator = operator;
+      this.measure = measure;
+      this.thresholdOperator = ThresholdOperator.fromOperator(operator);
+      this.threshold = toNumber(measure);
+      this.lookups = lookups;
+    }
+
+    private Boolean isSatisfied(JsonNode value) {
+      if (thresholdOperator == null) {
+        return false;
+      }
+
+      BigDecimal number = toNumber(value);
+      if (number == null || threshold == null) {
+        return null;
+      }
+      return thresholdOperator.test(number.compareTo(threshold));
+    }
+  }
+}
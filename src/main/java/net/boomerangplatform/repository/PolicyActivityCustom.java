@@ -1,10 +1,40 @@
 package net.boomerangplatform.repository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
+import org.springframework.data.util.CloseableIterator;
+
 import net.boomerangplatform.entity.PolicyActivityEntity;
+import net.boomerangplatform.model.PolicyInsights;
+import net.boomerangplatform.model.PolicyViolationsFilter;
 
 public interface PolicyActivityCustom {
+
+	String LATEST_COLLECTION = "bosun_latest_activity";
+
+	String LATEST_STATUS_COLLECTION = "bosun_latest_activity_status";
 	
 	List<PolicyActivityEntity> findTopDistinctViolationsByPolicyIdAndReferenceId(String policyId);
+
+	List<PolicyActivityEntity> findTopDistinctViolationsByTeamIdAndPolicyIds(String teamId,
+	    Collection<String> policyIds);
+
+	List<PolicyActivityEntity> findLatestViolationsByTeamIdAndPolicyIds(String teamId,
+	    Collection<String> policyIds);
+
+	List<PolicyActivityEntity> findLatestViolations(PolicyViolationsFilter filter,
+	    Collection<String> policyIds, Date afterDate, String afterId, int limit);
+
+	CloseableIterator<PolicyActivityEntity> streamLatestViolations(PolicyViolationsFilter filter,
+	    Collection<String> policyIds);
+
+	List<PolicyInsights> findInsightsByTeamIdAndCreatedDateAfter(String teamId, Date date);
+
+	void saveLatestActivity(PolicyActivityEntity activity);
+
+	void rebuildLatestActivities();
+
+	boolean isLatestActivitiesRebuilt();
 }
@@ -1,22 +1,53 @@
 package net.boomerangplatform.repository;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
 import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
 import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
 
 import net.boomerangplatform.entity.PolicyActivityEntity;
+import net.boomerangplatform.model.PolicyInsights;
+import net.boomerangplatform.model.PolicyViolationsFilter;
 
 public class PolicyActivityCustomImpl implements PolicyActivityCustom {
 
+  /*
+   * Follows the policyId_referenceId_createdDate index, so the latest activity of each reference is
+   * the first document of its group.
+   */
+  private static final Sort LATEST_BY_REFERENCE = Sort.by(Direction.ASC, "policyId")
+      .and(Sort.by(Direction.ASC, "referenceId")).and(Sort.by(Direction.DESC, "createdDate"));
+
+  private static final Sort LATEST_FIRST =
+      Sort.by(Direction.DESC, "createdDate").and(Sort.by(Direction.DESC, "_id"));
+
+  private static final AggregationOptions OPTIONS =
+      Aggregation.newAggregationOptions().allowDiskUse(true).build();
+
+  private static final Duration REBUILD_CLOCK_SKEW = Duration.ofMinutes(1);
+
+  private static final String REBUILD_STATUS_ID = "rebuild";
+
   private final MongoTemplate mongoTemplate;
 
   @Autowired
@@ -29,16 +60,179 @@ public class PolicyActivityCustomImpl implements PolicyActivityCustom {
       String policyId) {
 
     List<AggregationOperation> list = new ArrayList<>();
-    list.add(Aggregation.sort(new Sort(Direction.DESC, "createdDate")));
     list.add(Aggregation.match(new Criteria("policyId").is(policyId)));
-    list.add(Aggregation.group("$referenceId").push("$$ROOT").as("documents"));
-    list.add(Aggregation.replaceRoot(ArrayOperators.ArrayElemAt.arrayOf("documents").elementAt(0)));
+    list.add(Aggregation.sort(LATEST_BY_REFERENCE));
+    list.add(Aggregation.group("referenceId").first("$$ROOT").as("document"));
+    list.add(Aggregation.replaceRoot("document"));
+    list.add(Aggregation.match(new Criteria("valid").is(false)));
+
+    TypedAggregation<PolicyActivityEntity> agg =
+        Aggregation.newAggregation(PolicyActivityEntity.class, list).withOptions(OPTIONS);
+    return mongoTemplate
+        .aggregate(agg, PolicyActivityEntity.class, PolicyActivityEntity.class)
+        .getMappedResults();
+  }
+
+  /*
+   * Latest activity of each policy and reference of a team that failed validation, in a single
+   * pipeline instead of one per policy.
+   */
+  @Override
+  public List<PolicyActivityEntity> findTopDistinctViolationsByTeamIdAndPolicyIds(String teamId,
+      Collection<String> policyIds) {
+
+    List<AggregationOperation> list = new ArrayList<>();
+    list.add(Aggregation.match(new Criteria("teamId").is(teamId).and("policyId").in(policyIds)));
+    list.add(Aggregation.sort(LATEST_BY_REFERENCE));
+    list.add(Aggregation.group("policyId", "referenceId").first("$$ROOT").as("document"));
+    list.add(Aggregation.replaceRoot("document"));
     list.add(Aggregation.match(new Criteria("valid").is(false)));
 
     TypedAggregation<PolicyActivityEntity> agg =
-        Aggregation.newAggregation(PolicyActivityEntity.class, list);
+        Aggregation.newAggregation(PolicyActivityEntity.class, list).withOptions(OPTIONS);
     return mongoTemplate
         .aggregate(agg, PolicyActivityEntity.class, PolicyActivityEntity.class)
         .getMappedResults();
   }
+
+  @Override
+  public List<PolicyActivityEntity> findLatestViolationsByTeamIdAndPolicyIds(String teamId,
+      Collection<String> policyIds) {
+    Query query = new Query(Criteria.where("teamId").is(teamId).and("valid").is(false)
+        .and("policyId").in(policyIds));
+    return mongoTemplate.find(query, PolicyActivityEntity.class, LATEST_COLLECTION);
+  }
+
+  /*
+   * Keyset page ordered by createdDate and id descending, starting after the given activity.
+   */
+  @Override
+  public List<PolicyActivityEntity> findLatestViolations(PolicyViolationsFilter filter,
+      Collection<String> policyIds, Date afterDate, String afterId, int limit) {
+    Criteria criteria = getLatestViolationsCriteria(filter, policyIds);
+    if (afterDate != null && afterId != null) {
+      criteria = new Criteria().andOperator(criteria,
+          new Criteria().orOperator(Criteria.where("createdDate").lt(afterDate),
+              Criteria.where("createdDate").is(afterDate).and("_id").lt(new ObjectId(afterId))));
+    }
+
+    Query query = new Query(criteria).with(LATEST_FIRST).limit(limit);
+    return mongoTemplate.find(query, PolicyActivityEntity.class, LATEST_COLLECTION);
+  }
+
+  @Override
+  public CloseableIterator<PolicyActivityEntity> streamLatestViolations(
+      PolicyViolationsFilter filter, Collection<String> policyIds) {
+    Query query = new Query(getLatestViolationsCriteria(filter, policyIds)).with(LATEST_FIRST);
+    return mongoTemplate.stream(query, PolicyActivityEntity.class, LATEST_COLLECTION);
+  }
+
+  private static Criteria getLatestViolationsCriteria(PolicyViolationsFilter filter,
+      Collection<String> policyIds) {
+    Criteria criteria = Criteria.where("teamId").is(filter.getTeamId()).and("valid").is(false)
+        .and("policyId").in(policyIds);
+    if (filter.getFrom() != null || filter.getTo() != null) {
+      Criteria createdDate = criteria.and("createdDate");
+      if (filter.getFrom() != null) {
+        createdDate.gte(filter.getFrom());
+      }
+      if (filter.getTo() != null) {
+        createdDate.lt(filter.getTo());
+      }
+    }
+    filter.getLabels().forEach((key, value) -> criteria.and("labels." + key).is(value));
+    return criteria;
+  }
+
+  /*
+   * Failed activities of a team grouped by policy, each reduced to its reference, date and number
+   * of failed results so the results array never leaves the server.
+   */
+  @Override
+  public List<PolicyInsights> findInsightsByTeamIdAndCreatedDateAfter(String teamId, Date date) {
+    List<AggregationOperation> list = new ArrayList<>();
+    list.add(Aggregation.match(new Criteria("teamId").is(teamId).and("valid").is(false)
+        .and("createdDate").gt(date)));
+    list.add(Aggregation.sort(Direction.ASC, "createdDate"));
+    list.add(Aggregation.project("policyId").and("referenceId").as("policyActivityId")
+        .and("createdDate").as("policyActivityCreatedDate")
+        .and(ArrayOperators.Size.lengthOfArray(ArrayOperators.Filter.filter("results").as("result")
+            .by(ComparisonOperators.Eq.valueOf("result.valid").equalToValue(false))))
+        .as("violations"));
+    list.add(Aggregation.group("policyId")
+        .push(new Document("policyActivityId", "$policyActivityId")
+            .append("policyActivityCreatedDate", "$policyActivityCreatedDate")
+            .append("violations", "$violations"))
+        .as("insights"));
+    list.add(Aggregation.project("insights").and("_id").as("policyId"));
+
+    Aggregation agg = Aggregation.newAggregation(list).withOptions(OPTIONS);
+    return mongoTemplate.aggregate(agg, mongoTemplate.getCollectionName(PolicyActivityEntity.class),
+        PolicyInsights.class).getMappedResults();
+  }
+
+  /*
+   * Upserts the activity only when it is newer than the stored one. When a newer activity exists
+   * the query does not match, the upsert inserts a second document for the same policyId and
+   * referenceId and the unique index rejects it. Two first activities of a reference can also race
+   * on the insert, so the loser retries once as an update.
+   */
+  @Override
+  public void saveLatestActivity(PolicyActivityEntity activity) {
+    try {
+      upsertLatestActivity(activity);
+    } catch (DuplicateKeyException e) {
+      try {
+        upsertLatestActivity(activity);
+      } catch (DuplicateKeyException retry) {
+        // a newer activity of this reference is already stored
+      }
+    }
+  }
+
+  private void upsertLatestActivity(PolicyActivityEntity activity) {
+    Query query = new Query(Criteria.where("policyId").is(activity.getPolicyId())
+        .and("referenceId").is(activity.getReferenceId()).and("createdDate")
+        .lt(activity.getCreatedDate()));
+    Update update = new Update().set("activityId", new ObjectId(activity.getId()))
+        .set("teamId", activity.getTeamId()).set("referenceLink", activity.getReferenceLink())
+        .set("labels", activity.getLabels()).set("annotations", activity.getAnnotations())
+        .set("createdDate", activity.getCreatedDate()).set("results", activity.getResults())
+        .set("valid", activity.getValid());
+
+    mongoTemplate.upsert(query, update, PolicyActivityEntity.class, LATEST_COLLECTION);
+  }
+
+  /*
+   * Replaces the collection with the latest activity of every policy and reference, then replays
+   * the activities saved while the pipeline ran, which $out may have overwritten. The status
+   * document marks the collection as complete once both are done.
+   */
+  @Override
+  public void rebuildLatestActivities() {
+    ObjectId start = new ObjectId(Date.from(Instant.now().minus(REBUILD_CLOCK_SKEW)));
+
+    List<AggregationOperation> list = new ArrayList<>();
+    list.add(Aggregation.sort(LATEST_BY_REFERENCE));
+    list.add(Aggregation.group("policyId", "referenceId").first("$$ROOT").as("document"));
+    list.add(Aggregation.replaceRoot("document"));
+    list.add(context -> new Document("$addFields", new Document("activityId", "$_id")));
+    list.add(Aggregation.out(LATEST_COLLECTION));
+
+    TypedAggregation<PolicyActivityEntity> agg =
+        Aggregation.newAggregation(PolicyActivityEntity.class, list).withOptions(OPTIONS);
+    mongoTemplate.aggregate(agg, Document.class);
+
+    mongoTemplate.find(new Query(Criteria.where("_id").gte(start)), PolicyActivityEntity.class)
+        .forEach(this::saveLatestActivity);
+
+    mongoTemplate.upsert(new Query(Criteria.where("_id").is(REBUILD_STATUS_ID)),
+        new Update().set("completedDate", new Date()), LATEST_STATUS_COLLECTION);
+  }
+
+  @Override
+  public boolean isLatestActivitiesRebuilt() {
+    return mongoTemplate.exists(new Query(Criteria.where("_id").is(REBUILD_STATUS_ID)),
+        LATEST_STATUS_COLLECTION);
+  }
 }
@@ -0,0 +1,10 @@
+package net.boomerangplatform.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import net.boomerangplatform.entity.PolicyValidationJobEntity;
+
+public interface PolicyValidationJobRepository
+    extends MongoRepository<PolicyValidationJobEntity, String> {
+
+}
@@ -0,0 +1,140 @@
+package net.boomerangplatform.repository.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.boomerangplatform.repository.model.ArtifactSummary;
+import net.boomerangplatform.repository.model.DependencyGraph;
+import net.boomerangplatform.repository.model.SonarQubeReport;
+import net.boomerangplatform.service.ValidationMetrics;
+
+public class MemoizingRepositoryService implements RepositoryService {
+
+  private static final String CACHE_NAME = "bosun.repository.fetches";
+
+  private final RepositoryService repositoryService;
+
+  private final Map<List<String>, CompletableFuture<Object>> fetches = new ConcurrentHashMap<>();
+
+  private final MeterRegistry meterRegistry;
+
+  public MemoizingRepositoryService(RepositoryService repositoryService,
+      MeterRegistry meterRegistry) {
+    this.repositoryService = repositoryService;
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public DependencyGraph getDependencyGraph(String artifactPath, String artifactName,
+      String artifactVersion) {
+    return fetch(
+        () -> repositoryService.getDependencyGraph(artifactPath, artifactName, artifactVersion),
+        "dependencyGraph", artifactPath, artifactName, artifactVersion);
+  }
+
+  @Override
+  public ArtifactSummary getArtifactSummary(String artifactPath, String artifactName,
+      String artifactVersion) {
+    return fetch(
+        () -> repositoryService.getArtifactSummary(artifactPath, artifactName, artifactVersion),
+        "artifactSummary", artifactPath, artifactName, artifactVersion);
+  }
+
+  @Override
+  public SonarQubeReport getSonarQubeReport(String id, String version) {
+    return fetch(() -> repositoryService.getSonarQubeReport(id, version), "sonarQubeReport", id,
+        version);
+  }
+
+  @Override
+  public SonarQubeReport getSonarQubeTestCoverage(String id, String version) {
+    return fetch(() -> repositoryService.getSonarQubeTestCoverage(id, version),
+        "sonarQubeTestCoverage", id, version);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T fetch(Supplier<T> loader, String... key) {
+    CompletableFuture<Object> fetch = new CompletableFuture<>();
+    CompletableFuture<Object> existing = fetches.putIfAbsent(Arrays.asList(key), fetch);
+    ValidationMetrics.recordCacheGet(meterRegistry, CACHE_NAME, existing != null);
+
+    if (existing != null) {
+      try {
+        return (T) existing.join();
+      } catch (CompletionException e) {
+        throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+      }
+    }
+
+    try {
+      T result = loader.get();
+      fetch.complete(result);
+      return result;
+    } catch (RuntimeException e) {
+      fetch.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  @Override
+  public CompletableFuture<DependencyGraph> getDependencyGraphAsync(String artifactPath,
+      String artifactName, String artifactVersion) {
+    return fetchAsync(
+        () -> repositoryService.getDependencyGraphAsync(artifactPath, artifactName,
+            artifactVersion),
+        "dependencyGraph", artifactPath, artifactName, artifactVersion);
+  }
+
+  @Override
+  public CompletableFuture<ArtifactSummary> getArtifactSummaryAsync(String artifactPath,
+      String artifactName, String artifactVersion) {
+    return fetchAsync(
+        () -> repositoryService.getArtifactSummaryAsync(artifactPath, artifactName,
+            artifactVersion),
+        "artifactSummary", artifactPath, artifactName, artifactVersion);
+  }
+
+  @Override
+  public CompletableFuture<SonarQubeReport> getSonarQubeReportAsync(String id, String version) {
+    return fetchAsync(() -> repositoryService.getSonarQubeReportAsync(id, version),
+        "sonarQubeReport", id, version);
+  }
+
+  @Override
+  public CompletableFuture<SonarQubeReport> getSonarQubeTestCoverageAsync(String id,
+      String version) {
+    return fetchAsync(() -> repositoryService.getSonarQubeTestCoverageAsync(id, version),
+        "sonarQubeTestCoverage", id, version);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> CompletableFuture<T> fetchAsync(Supplier<CompletableFuture<T>> loader,
+      String... key) {
+    CompletableFuture<Object> fetch = new CompletableFuture<>();
+    CompletableFuture<Object> existing = fetches.putIfAbsent(Arrays.asList(key), fetch);
+    ValidationMetrics.recordCacheGet(meterRegistry, CACHE_NAME, existing != null);
+
+    if (existing != null) {
+      return (CompletableFuture<T>) existing;
+    }
+
+    try {
+      loader.get().whenComplete((result, e) -> {
+        if (e != null) {
+          fetch.completeExceptionally(e);
+        } else {
+          fetch.complete(result);
+        }
+      });
+    } catch (RuntimeException e) {
+      fetch.completeExceptionally(e);
+    }
+    return (CompletableFuture<T>) fetch;
+  }
+}
@@ -1,5 +1,6 @@
 package net.boomerangplatform.repository.service;
 
+import java.util.concurrent.CompletableFuture;
 import net.boomerangplatform.repository.model.ArtifactSummary;
 import net.boomerangplatform.repository.model.DependencyGraph;
 import net.boomerangplatform.repository.model.SonarQubeReport;
@@ -12,4 +13,14 @@ public interface RepositoryService {
   SonarQubeReport getSonarQubeReport(String id, String version);
   
   SonarQubeReport getSonarQubeTestCoverage(String id, String version);
+
+  CompletableFuture<DependencyGraph> getDependencyGraphAsync(String artifactPath,
+      String artifactName, String artifactVersion);
+
+  CompletableFuture<ArtifactSummary> getArtifactSummaryAsync(String artifactPath,
+      String artifactName, String artifactVersion);
+
+  CompletableFuture<SonarQubeReport> getSonarQubeReportAsync(String id, String version);
+
+  CompletableFuture<SonarQubeReport> getSonarQubeTestCoverageAsync(String id, String version);
 }
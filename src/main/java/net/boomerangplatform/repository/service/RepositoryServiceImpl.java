@@ -1,19 +1,31 @@
 package net.boomerangplatform.repository.service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.annotation.PostConstruct;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
 
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
 import net.boomerangplatform.repository.model.ArtifactSummary;
 import net.boomerangplatform.repository.model.DependencyGraph;
 import net.boomerangplatform.repository.model.SonarQubeReport;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
 
 @Service
 public class RepositoryServiceImpl implements RepositoryService {
@@ -48,7 +60,32 @@ public class RepositoryServiceImpl implements RepositoryService {
   @Value("${repository.rest.url.sonarqubetestcoveragedetail}")
   private String repositoryRestUrlSonarqubetestcoveragedetail;
 
-  private RestTemplate restTemplate = new RestTemplate();
+  @Value("${repository.http.connect.timeout.ms}")
+  private int connectTimeout;
+
+  @Value("${repository.http.read.timeout.ms}")
+  private int readTimeout;
+
+  @Autowired
+  private WebClient.Builder webClientBuilder;
+
+  private RestTemplate restTemplate;
+
+  private WebClient webClient;
+
+  @PostConstruct
+  public void init() {
+    SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+    requestFactory.setConnectTimeout(connectTimeout);
+    requestFactory.setReadTimeout(readTimeout);
+    restTemplate = new RestTemplate(requestFactory);
+
+    HttpClient httpClient = HttpClient.create().tcpConfiguration(tcpClient -> tcpClient
+        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout)
+        .doOnConnected(connection -> connection
+            .addHandlerLast(new ReadTimeoutHandler(readTimeout, TimeUnit.MILLISECONDS))));
+    webClient = webClientBuilder.clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+  }
 
   @Override
   public DependencyGraph getDependencyGraph(String artifactPath, String artifactName,String artifactVersion) {
@@ -140,5 +177,56 @@ public class RepositoryServiceImpl implements RepositoryService {
     }
 
     return result;
-  }  
+  }
+
+  @Override
+  public CompletableFuture<DependencyGraph> getDependencyGraphAsync(String artifactPath,
+      String artifactName, String artifactVersion) {
+    String url = repositoryRestUrlBase + repositoryRestUrlDependencygraph
+        .replace(PARAM_ARTIFACT_PATH, artifactPath).replace(PARAM_ARTIFACT_NAME, artifactName)
+        .replace(PARAM_ARTIFACT_VERSION, artifactVersion);
+
+    LOGGER.info("getDependencyGraphAsync() - url: " + url);
+
+    return get(url, DependencyGraph.class, DependencyGraph::new);
+  }
+
+  @Override
+  public CompletableFuture<ArtifactSummary> getArtifactSummaryAsync(String artifactPath,
+      String artifactName, String artifactVersion) {
+    String url = repositoryRestUrlBase + repositoryRestUrlArtifactsummary
+        .replace(PARAM_ARTIFACT_PATH, artifactPath).replace(PARAM_ARTIFACT_NAME, artifactName)
+        .replace(PARAM_ARTIFACT_VERSION, artifactVersion);
+
+    LOGGER.info("getArtifactSummaryAsync() - url: " + url);
+
+    return get(url, ArtifactSummary.class, ArtifactSummary::new);
+  }
+
+  @Override
+  public CompletableFuture<SonarQubeReport> getSonarQubeReportAsync(String id, String version) {
+    String url = repositoryRestUrlBase + repositoryRestUrlSonarqubereport.replace(PARAM_ID, id)
+        .replace(PARAM_VERSION, version);
+
+    LOGGER.info("getSonarQubeReportAsync() - url: " + url);
+
+    return get(url, SonarQubeReport.class, SonarQubeReport::new);
+  }
+
+  @Override
+  public CompletableFuture<SonarQubeReport> getSonarQubeTestCoverageAsync(String id,
+      String version) {
+    String url = repositoryRestUrlBase + repositoryRestUrlSonarqubetestcoverage
+        .replace(PARAM_ID, id).replace(PARAM_VERSION, version);
+
+    LOGGER.info("getSonarQubeTestCoverageAsync() - url: " + url);
+
+    return get(url, SonarQubeReport.class, SonarQubeReport::new);
+  }
+
+  private <T> CompletableFuture<T> get(String url, Class<T> responseType, Supplier<T> empty) {
+    return webClient.get().uri(url).retrieve().bodyToMono(responseType)
+        .doOnError(e -> LOGGER.error(e.getMessage(), e))
+        .onErrorResume(e -> Mono.fromSupplier(empty)).defaultIfEmpty(empty.get()).toFuture();
+  }
 }
@@ -1,8 +1,12 @@
 package net.boomerangplatform.service;
 
-import java.io.ByteArrayOutputStream;
+import java.util.concurrent.CompletableFuture;
 
 public interface BosunInternalService {
 
-ByteArrayOutputStream getBundle();
+  PolicyBundle getBundle();
+
+  PolicyBundle getBundle(String revision);
+
+  CompletableFuture<PolicyBundle> getNextBundle(String revision);
 }
@@ -4,68 +4,261 @@ import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
 import java.util.zip.GZIPOutputStream;
+import javax.annotation.PostConstruct;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
 import net.boomerangplatform.entity.PolicyTemplateEntity;
 import net.boomerangplatform.exception.BosunException;
-import net.boomerangplatform.repository.PolicyTemplateRepository;
+import net.boomerangplatform.opa.service.AggregatePolicy;
 
 @Service
 public class BosunInternalServiceImpl implements BosunInternalService {
 
   @Autowired
-  private PolicyTemplateRepository policyTemplateRepository;
+  private PolicyTemplateRegistry policyTemplateRegistry;
+
+  @Autowired
+  private PolicyDataRegistry policyDataRegistry;
 
   private static final Logger LOGGER = LogManager.getLogger();
 
+  private volatile PolicyBundle bundle;
+
+  private final Map<CompletableFuture<PolicyBundle>, String> waiters = new ConcurrentHashMap<>();
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  @Value("${bosun.bundle.delta.enabled}")
+  private boolean deltaEnabled;
+
+  @Value("${bosun.bundle.delta.history.size}")
+  private int historySize;
+
+  private Map<String, BundleState> history;
+
+  private Cache<String, PolicyBundle> deltas;
+
+  @PostConstruct
+  public void init() {
+    history = new LinkedHashMap<String, BundleState>() {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, BundleState> eldest) {
+        return size() > historySize;
+      }
+    };
+    deltas = CacheBuilder.newBuilder().maximumSize(historySize).build();
+  }
+
   @Override
-  public ByteArrayOutputStream getBundle() {
-    TarArchiveOutputStream taos = null;
-    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-    List<PolicyTemplateEntity> entities = policyTemplateRepository.findAll();
+  public PolicyBundle getBundle() {
+    PolicyTemplateRegistry.Snapshot snapshot = policyTemplateRegistry.getSnapshot();
+    PolicyDataRegistry.Snapshot dataSnapshot = policyDataRegistry.getSnapshot();
+    PolicyBundle current = bundle;
+    if (current == null
+        || !current.getRevision().equals(getRevision(snapshot, dataSnapshot))) {
+      current = buildBundle(snapshot, dataSnapshot);
+    }
+    return current;
+  }
+
+  /*
+   * Returns a delta bundle from the given revision when possible, otherwise the snapshot bundle.
+   */
+  @Override
+  public PolicyBundle getBundle(String revision) {
+    PolicyBundle current = getBundle();
+    if (!deltaEnabled || revision == null || revision.equals(current.getRevision())) {
+      return current;
+    }
 
     try {
+      return deltas.get(revision + ":" + current.getRevision(),
+          () -> buildDelta(revision, current));
+    } catch (ExecutionException e) {
+      throw new BosunException(e.getCause());
+    }
+  }
+
+  /*
+   * Completes once the bundle revision differs from the given one. Callers that stop waiting
+   * should cancel the returned future so it is released.
+   */
+  @Override
+  public CompletableFuture<PolicyBundle> getNextBundle(String revision) {
+    CompletableFuture<PolicyBundle> waiter = new CompletableFuture<>();
+    waiters.put(waiter, revision);
+    waiter.whenComplete((next, e) -> waiters.remove(waiter));
+
+    PolicyBundle current = getBundle();
+    if (!current.getRevision().equals(revision)) {
+      waiter.complete(getBundle(revision));
+    }
+    return waiter;
+  }
+
+  @EventListener({PolicyTemplatesChangedEvent.class, PolicyDataChangedEvent.class})
+  public void onBundleChanged() {
+    if (waiters.isEmpty()) {
+      return;
+    }
 
-      taos = new TarArchiveOutputStream(new GZIPOutputStream(new BufferedOutputStream(baos)));
+    PolicyBundle current = getBundle();
+    LOGGER.info("Releasing " + waiters.size() + " bundle polls for revision "
+        + current.getRevision() + ".");
+    waiters.forEach((waiter, revision) -> {
+      if (!current.getRevision().equals(revision)) {
+        waiter.complete(getBundle(revision));
+      }
+    });
+  }
 
-      for (PolicyTemplateEntity entity : entities) {
-        String templateName = entity.getKey() + ".rego";
-        LOGGER.info("Adding template: " + templateName + "...");
-        TarArchiveEntry tae = new TarArchiveEntry(templateName);
+  private synchronized PolicyBundle buildBundle(PolicyTemplateRegistry.Snapshot snapshot,
+      PolicyDataRegistry.Snapshot dataSnapshot) {
+    String revision = getRevision(snapshot, dataSnapshot);
+    PolicyBundle current = bundle;
+    if (current != null && current.getRevision().equals(revision)) {
+      return current;
+    }
 
-        byte[] templateBytes = Base64.getDecoder().decode(entity.getRego());
+    Map<String, byte[]> entries = new LinkedHashMap<>();
+    List<PolicyTemplateEntity> entities = snapshot.getTemplates();
 
-        LOGGER.info(new String(templateBytes, StandardCharsets.UTF_8));
-        tae.setSize(templateBytes.length);
+    for (PolicyTemplateEntity entity : entities) {
+      String templateName = entity.getKey() + ".rego";
+      LOGGER.info("Adding template: " + templateName + "...");
+      entries.put(templateName, Base64.getDecoder().decode(entity.getRego()));
+    }
+
+    entries.put(AggregatePolicy.KEY + ".rego", AggregatePolicy
+        .getRego(entities.stream().map(PolicyTemplateEntity::getKey).collect(Collectors.toList()))
+        .getBytes(StandardCharsets.UTF_8));
+
+    if (dataSnapshot.getData().length > 0) {
+      entries.put("data.json", dataSnapshot.getData());
+    }
+    entries.put(".manifest", getManifest(revision));
+
+    bundle = new PolicyBundle(revision, getArchive(entries));
+    history.put(revision, new BundleState(snapshot.getHash(), dataSnapshot.getPolicies()));
+    LOGGER.info("Built bundle revision " + revision + " with " + entities.size()
+        + " templates.");
+    return bundle;
+  }
+
+  /*
+   * Builds a delta bundle that patches the policy data of the given revision to the current one.
+   * Template changes can't be patched, so it falls back to the snapshot bundle when they differ or
+   * the revision is no longer in the history.
+   */
+  private synchronized PolicyBundle buildDelta(String revision, PolicyBundle current) {
+    BundleState from = history.get(revision);
+    BundleState to = history.get(current.getRevision());
+    if (from == null || to == null || !from.templatesHash.equals(to.templatesHash)) {
+      return current;
+    }
+
+    List<Map<String, Object>> operations = new ArrayList<>();
+    to.policies.forEach((policyId, policy) -> {
+      if (!policy.equals(from.policies.get(policyId))) {
+        operations.add(getOperation("upsert", policyId, policy));
+      }
+    });
+    from.policies.keySet().stream().filter(policyId -> !to.policies.containsKey(policyId))
+        .forEach(policyId -> operations.add(getOperation("remove", policyId, null)));
+
+    Map<String, byte[]> entries = new LinkedHashMap<>();
+    try {
+      entries.put("patch.json",
+          mapper.writeValueAsBytes(Collections.singletonMap("data", operations)));
+    } catch (JsonProcessingException e) {
+      throw new BosunException(e);
+    }
+    entries.put(".manifest", getManifest(current.getRevision()));
+
+    LOGGER.info("Built delta bundle from revision " + revision + " to " + current.getRevision()
+        + " with " + operations.size() + " operations.");
+    return new PolicyBundle(current.getRevision(), getArchive(entries), true);
+  }
+
+  private static Map<String, Object> getOperation(String op, String policyId, Object value) {
+    Map<String, Object> operation = new LinkedHashMap<>();
+    operation.put("op", op);
+    operation.put("path", "/" + AggregatePolicy.POLICIES + "/"
+        + policyId.replace("~", "~0").replace("/", "~1"));
+    if (value != null) {
+      operation.put("value", value);
+    }
+    return operation;
+  }
+
+  private static byte[] getManifest(String revision) {
+    return ("{\"revision\":\"" + revision + "\"}").getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static byte[] getArchive(Map<String, byte[]> entries) {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+    try (TarArchiveOutputStream taos =
+        new TarArchiveOutputStream(new GZIPOutputStream(new BufferedOutputStream(baos)))) {
+      for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+        TarArchiveEntry tae = new TarArchiveEntry(entry.getKey());
+        tae.setSize(entry.getValue().length);
         taos.putArchiveEntry(tae);
         // The write command allows you to write bytes to the current entry
         // on the output stream. It will not allow you to write any more than the size
         // that you specified when you created the archive entry above
-        taos.write(templateBytes);
+        taos.write(entry.getValue());
         taos.closeArchiveEntry();
       }
-    } catch (Exception e) {
+    } catch (IOException e) {
       LOGGER.log(Level.ERROR, e);
       throw new BosunException(e.getMessage());
-    } finally {
-      try {
-        if (taos != null) {
-          taos.close();
-        }
-
-      } catch (IOException e) {
-        LOGGER.log(Level.ERROR, e);
-      }
     }
 
-    return baos;
+    return baos.toByteArray();
+  }
+
+  private static String getRevision(PolicyTemplateRegistry.Snapshot snapshot,
+      PolicyDataRegistry.Snapshot dataSnapshot) {
+    return Hashing.sha256()
+        .hashString(snapshot.getHash() + ":" + dataSnapshot.getHash(), StandardCharsets.UTF_8)
+        .toString();
+  }
+
+  private static final class BundleState {
+
+    private final String templatesHash;
+
+    private final Map<String, Object> policies;
+
+    private BundleState(String templatesHash, Map<String, Object> policies) {
+      this.templatesHash = templatesHash;
+      this.policies = policies;
+    }
   }
 }
@@ -2,6 +2,8 @@ package net.boomerangplatform.service;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 import net.boomerangplatform.entity.PolicyActivityEntity;
 import net.boomerangplatform.model.Policy;
@@ -10,7 +12,10 @@ import net.boomerangplatform.model.PolicyInsights;
 import net.boomerangplatform.model.PolicyResponse;
 import net.boomerangplatform.model.PolicySummary;
 import net.boomerangplatform.model.PolicyValidation;
+import net.boomerangplatform.model.PolicyValidationResult;
 import net.boomerangplatform.model.PolicyViolations;
+import net.boomerangplatform.model.PolicyViolationsFilter;
+import net.boomerangplatform.model.PolicyViolationsPage;
 
 public interface BosunService {
 
@@ -30,10 +35,18 @@ public interface BosunService {
 
   List<PolicyViolations> getViolations(String ciTeamId);
 
+  PolicyViolationsPage getViolations(PolicyViolationsFilter filter, String cursor, int limit);
+
+  Stream<PolicyViolations> streamViolations(PolicyViolationsFilter filter);
+
   PolicyResponse deletePolicy(String ciPolicyId);
 
   PolicyActivityEntity validatePolicy(PolicyValidation policyValidation);
 
+  CompletableFuture<PolicyActivityEntity> validatePolicyAsync(PolicyValidation policyValidation);
+
+  List<PolicyValidationResult> validatePolicies(List<PolicyValidation> policyValidations);
+
   PolicyTemplate getTemplate(String templateId);
 
   PolicyTemplate addTemplate(PolicyTemplate template);
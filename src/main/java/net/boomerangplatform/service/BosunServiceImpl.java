@@ -1,34 +1,56 @@
 package net.boomerangplatform.service;
 
+import static net.boomerangplatform.service.ValidationMetrics.NO_TEMPLATE;
+import static net.boomerangplatform.service.ValidationMetrics.STAGE_ACTIVITY_SAVE;
+import static net.boomerangplatform.service.ValidationMetrics.STAGE_OPA_EVALUATE;
+import static net.boomerangplatform.service.ValidationMetrics.STAGE_POLICY_LOAD;
+import static net.boomerangplatform.service.ValidationMetrics.STAGE_REPOSITORY_ARTIFACT_SUMMARY;
+import static net.boomerangplatform.service.ValidationMetrics.STAGE_REPOSITORY_DEPENDENCY_GRAPH;
+import static net.boomerangplatform.service.ValidationMetrics.STAGE_REPOSITORY_SONARQUBE_REPORT;
+import static net.boomerangplatform.service.ValidationMetrics.STAGE_REPOSITORY_SONARQUBE_TEST_COVERAGE;
+import static net.boomerangplatform.service.ValidationMetrics.STAGE_TEMPLATE_LOAD;
+import java.nio.charset.StandardCharsets;
 import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.bson.types.ObjectId;
 import org.json.JSONObject;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.util.StreamUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import net.boomerangplatform.entity.PolicyActivityEntity;
 import net.boomerangplatform.entity.PolicyEntity;
 import net.boomerangplatform.entity.PolicyTemplateEntity;
 import net.boomerangplatform.exception.BosunError;
 import net.boomerangplatform.exception.BosunException;
+import net.boomerangplatform.exception.BosunUnavailableException;
 import net.boomerangplatform.model.Policy;
-import net.boomerangplatform.model.PolicyActivitiesInsights;
 import net.boomerangplatform.model.PolicyDefinition;
 import net.boomerangplatform.model.PolicyInsights;
 import net.boomerangplatform.model.PolicyResponse;
@@ -36,25 +58,31 @@ import net.boomerangplatform.model.PolicySummary;
 import net.boomerangplatform.model.PolicyTemplate;
 import net.boomerangplatform.model.PolicyValidation;
 import net.boomerangplatform.model.PolicyValidationInput;
+import net.boomerangplatform.model.PolicyValidationResult;
 import net.boomerangplatform.model.PolicyViolation;
 import net.boomerangplatform.model.PolicyViolations;
+import net.boomerangplatform.model.PolicyViolationsFilter;
+import net.boomerangplatform.model.PolicyViolationsPage;
 import net.boomerangplatform.model.Result;
 import net.boomerangplatform.model.ResultViolation;
 import net.boomerangplatform.model.Scope;
 import net.boomerangplatform.model.Status;
 import net.boomerangplatform.mongo.model.OperatorType;
+import net.boomerangplatform.opa.exception.OPAUnavailableException;
+import net.boomerangplatform.opa.model.AggregateDataRequest;
+import net.boomerangplatform.opa.model.AggregateDataRequestInput;
 import net.boomerangplatform.opa.model.DataRequest;
 import net.boomerangplatform.opa.model.DataRequestInput;
 import net.boomerangplatform.opa.model.DataRequestPolicy;
 import net.boomerangplatform.opa.model.DataResponse;
+import net.boomerangplatform.opa.model.DataResponseResult;
 import net.boomerangplatform.opa.model.DataResponseResultViolation;
+import net.boomerangplatform.opa.service.AggregatePolicy;
 import net.boomerangplatform.opa.service.OpenPolicyAgentClient;
+import net.boomerangplatform.opa.service.ThresholdEvaluator;
 import net.boomerangplatform.repository.PolicyActivityRepository;
 import net.boomerangplatform.repository.PolicyRepository;
 import net.boomerangplatform.repository.PolicyTemplateRepository;
-import net.boomerangplatform.repository.model.ArtifactSummary;
-import net.boomerangplatform.repository.model.DependencyGraph;
-import net.boomerangplatform.repository.model.SonarQubeReport;
 import net.boomerangplatform.repository.service.RepositoryService;
 
 @Service
@@ -66,9 +94,21 @@ public class BosunServiceImpl implements BosunService {
   @Autowired
   private PolicyRepository policyRepository;
 
+  @Autowired
+  private PolicyCache policyCache;
+
   @Autowired
   private PolicyTemplateRepository policyTemplateRepository;
 
+  @Autowired
+  private PolicyTemplateRegistry policyTemplateRegistry;
+
+  @Autowired
+  private PolicyDataRegistry policyDataRegistry;
+
+  @Autowired
+  private ValidationResultCache validationResultCache;
+
   @Autowired
   private PolicyActivityRepository policyActivityRepository;
 
@@ -78,9 +118,44 @@ public class BosunServiceImpl implements BosunService {
   @Autowired
   private OpenPolicyAgentClient openPolicyAgentClient;
 
+  @Autowired
+  private ThresholdEvaluator thresholdEvaluator;
+
   @Autowired
   private Clock clock;
 
+  @Autowired
+  private ValidationMetrics validationMetrics;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private Executor validationExecutor;
+
+  @Autowired
+  private Executor batchValidationExecutor;
+
+  @Value("${bosun.validation.batch.max.size}")
+  private int batchMaxSize;
+
+  @Value("${bosun.validation.opa.combined.enabled}")
+  private boolean opaCombinedEnabled;
+
+  @Value("${bosun.validation.nonblocking.enabled}")
+  private boolean nonBlockingEnabled;
+
+  @Value("${bosun.validation.opa.policy.data.enabled}")
+  private boolean opaPolicyDataEnabled;
+
+  @Value("${bosun.violations.latest.enabled}")
+  private boolean latestActivityEnabled;
+
+  @Value("${bosun.violations.page.size.max}")
+  private int violationsMaxPageSize;
+
+  private volatile boolean latestActivityRebuilt;
+
   private static final Logger LOGGER = LogManager.getLogger();
 
   @Bean
@@ -90,8 +165,7 @@ public class BosunServiceImpl implements BosunService {
 
   @Override
   public List<PolicyTemplate> getAllTemplates() {
-    List<PolicyTemplateEntity> entities =
-        policyTemplateRepository.findAll(new Sort(Sort.Direction.ASC, "order"));
+    List<PolicyTemplateEntity> entities = policyTemplateRegistry.getTemplates();
     List<PolicyTemplate> descriptions = new ArrayList<>();
 
     entities.forEach(entity -> {
@@ -105,7 +179,7 @@ public class BosunServiceImpl implements BosunService {
 
   @Override
   public PolicyTemplate getTemplate(String templateId) {
-    PolicyTemplateEntity entity = policyTemplateRepository.findById(templateId).orElse(null);
+    PolicyTemplateEntity entity = policyTemplateRegistry.getTemplate(templateId);
     PolicyTemplate template = new PolicyTemplate();
     if(entity != null) {
       BeanUtils.copyProperties(entity, template);
@@ -122,6 +196,7 @@ public class BosunServiceImpl implements BosunService {
     BeanUtils.copyProperties(template, entity);
     entity = policyTemplateRepository.insert(entity);
     template.setId(entity.getId());
+    policyTemplateRegistry.refresh();
 
     return template;
   }
@@ -133,6 +208,7 @@ public class BosunServiceImpl implements BosunService {
     if(entity != null) {
       BeanUtils.copyProperties(template, entity);
       policyTemplateRepository.save(entity);
+      policyTemplateRegistry.refresh();
     }
     
     return template;
@@ -196,7 +272,7 @@ public class BosunServiceImpl implements BosunService {
 
   @Override
   public Policy getPolicyById(String ciPolicyId) {
-    PolicyEntity entity = policyRepository.findById(ciPolicyId).orElse(null);
+    PolicyEntity entity = policyCache.getPolicy(ciPolicyId);
 
     Policy policy = new Policy();
     if (entity != null) {
@@ -216,7 +292,10 @@ public class BosunServiceImpl implements BosunService {
     PolicyEntity entity = new PolicyEntity();
     BeanUtils.copyProperties(policy, entity);
     entity.setStatus(Status.active);
+    entity.setRevision(1L);
     entity = policyRepository.insert(entity);
+    policyCache.evict(entity.getId());
+    policyDataRegistry.requestRefresh();
     policy.setId(entity.getId());
 
     return policy;
@@ -231,7 +310,10 @@ public class BosunServiceImpl implements BosunService {
 
     if (entity != null) {
       BeanUtils.copyProperties(policy, entity);
+      entity.setRevision(getNextRevision(entity));
       policyRepository.save(entity);
+      policyCache.evict(entity.getId());
+      policyDataRegistry.requestRefresh();
     }
 
     return policy;
@@ -239,9 +321,102 @@ public class BosunServiceImpl implements BosunService {
 
   @Override
   public PolicyActivityEntity validatePolicy(PolicyValidation policyValidation) {
+    return join(validatePolicyAsync(policyValidation));
+  }
+
+  @Override
+  public CompletableFuture<PolicyActivityEntity> validatePolicyAsync(
+      PolicyValidation policyValidation) {
+    ValidationContext context = new ValidationContext(policyCache, policyTemplateRegistry,
+        repositoryService, meterRegistry);
+    return getPolicyActivity(policyValidation, context)
+        .thenApplyAsync(activity -> validationMetrics.record(STAGE_ACTIVITY_SAVE, NO_TEMPLATE,
+            () -> saveLatestActivity(policyActivityRepository.save(activity))),
+            validationExecutor);
+  }
+
+  @Override
+  public List<PolicyValidationResult> validatePolicies(List<PolicyValidation> policyValidations) {
+    if (policyValidations.size() > batchMaxSize) {
+      throw new BosunException(
+          BosunError.BATCH_TOO_LARGE.getMessage(policyValidations.size(), batchMaxSize));
+    }
+
+    ValidationContext context = new ValidationContext(policyCache, policyTemplateRegistry,
+        repositoryService, meterRegistry);
+
+    List<CompletableFuture<PolicyValidationResult>> futures = policyValidations.stream()
+        .map(policyValidation -> CompletableFuture
+            .supplyAsync(() -> getPolicyValidationResult(policyValidation, context),
+                batchValidationExecutor)
+            .thenCompose(Function.identity()))
+        .collect(Collectors.toList());
+
+    List<PolicyValidationResult> validationResults =
+        futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+
+    List<PolicyValidationResult> evaluated = validationResults.stream()
+        .filter(validationResult -> validationResult.getActivity() != null)
+        .collect(Collectors.toList());
+
+    if (!evaluated.isEmpty()) {
+      List<PolicyActivityEntity> saved = validationMetrics.record(STAGE_ACTIVITY_SAVE,
+          NO_TEMPLATE, () -> policyActivityRepository.insert(evaluated.stream()
+              .map(PolicyValidationResult::getActivity).collect(Collectors.toList())));
+      for (int i = 0; i < evaluated.size(); i++) {
+        evaluated.get(i).setActivity(saveLatestActivity(saved.get(i)));
+      }
+    }
+
+    return validationResults;
+  }
+
+  /*
+   * A failed upsert leaves the violations view behind until the next rebuild, it does not fail the
+   * validation.
+   */
+  private PolicyActivityEntity saveLatestActivity(PolicyActivityEntity activity) {
+    if (latestActivityEnabled) {
+      try {
+        policyActivityRepository.saveLatestActivity(activity);
+      } catch (RuntimeException e) {
+        LOGGER.error("Unable to save latest activity " + activity.getId(), e);
+      }
+    }
+    return activity;
+  }
+
+  private CompletableFuture<PolicyValidationResult> getPolicyValidationResult(
+      PolicyValidation policyValidation, ValidationContext context) {
+    PolicyValidationResult validationResult = new PolicyValidationResult();
+    validationResult.setPolicyId(policyValidation.getPolicyId());
+    validationResult.setReferenceId(policyValidation.getReferenceId());
+    return getPolicyActivity(policyValidation, context).handle((activity, e) -> {
+      if (e != null) {
+        Throwable cause = getCause(e);
+        LOGGER.error("Unable to validate policy " + policyValidation.getPolicyId(), cause);
+        validationResult.setError(cause.getMessage());
+      } else {
+        validationResult.setActivity(activity);
+      }
+      return validationResult;
+    });
+  }
+
+  private CompletableFuture<PolicyActivityEntity> getPolicyActivity(
+      PolicyValidation policyValidation, ValidationContext context) {
+    try {
+      return getPolicyActivityFuture(policyValidation, context);
+    } catch (RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
 
-    PolicyEntity policyEntity =
-        policyRepository.findById(policyValidation.getPolicyId()).orElse(null);
+  private CompletableFuture<PolicyActivityEntity> getPolicyActivityFuture(
+      PolicyValidation policyValidation, ValidationContext context) {
+
+    PolicyEntity policyEntity = validationMetrics.record(STAGE_POLICY_LOAD, NO_TEMPLATE,
+        () -> context.getPolicy(policyValidation.getPolicyId()));
 
     if (policyEntity != null && policyEntity.getStatus().equals(Status.inactive)) {
       throw new BosunException(BosunError.POLICY_DELETED.getMessage(policyEntity.getId()));
@@ -257,63 +432,192 @@ public class BosunServiceImpl implements BosunService {
       policiesActivities.setValid(true);
 
       List<Result> results = new ArrayList<>();
-
-      if (policyEntity.getDefinitions() != null) {
-        getPolicyDefinitions(policyValidation, policyEntity, policiesActivities, results);
+      policiesActivities.setResults(results);
+      if (policyEntity.getDefinitions() == null) {
+        return CompletableFuture.completedFuture(policiesActivities);
       }
 
-      policiesActivities.setResults(results);
-      return policyActivityRepository.save(policiesActivities);
+      return getPolicyDefinitions(policyValidation, policyEntity, policiesActivities, results,
+          context).thenApply(v -> policiesActivities);
     } else {
       throw new BosunException(
           BosunError.POLICY_NOT_FOUND.getMessage(policyValidation.getPolicyId()));
     }
   }
 
-  private void getPolicyDefinitions(PolicyValidation policyValidation, PolicyEntity policyEntity,
-      final PolicyActivityEntity policiesActivities, List<Result> results) {
-    policyEntity.getDefinitions().stream()
+  /*
+   * Results are cached by the fetched repository data rather than the labels, so a new scan of the
+   * same artifact version is evaluated again.
+   */
+  private CompletableFuture<Void> getPolicyDefinitions(PolicyValidation policyValidation,
+      PolicyEntity policyEntity, final PolicyActivityEntity policiesActivities,
+      List<Result> results, ValidationContext context) {
+    List<CompletableFuture<DefinitionEvaluation>> futures = policyEntity.getDefinitions().stream()
         .filter(policyTemplate -> !CollectionUtils.isEmpty(policyTemplate.getRules()))
-        .forEach(policyTemplate -> {
-
-          PolicyTemplateEntity policyTemplateEntity = policyTemplateRepository
-              .findById(policyTemplate.getPolicyTemplateId()).orElse(null);
-
-          PolicyValidationInput policyValidationInput = null;
-
-          if (!policyValidation.getInputs().isEmpty()) {
-            policyValidationInput = policyValidation.getInputs().stream()
-                .filter(
-                    input -> policyTemplate.getPolicyTemplateId().equals(input.getTemplateId()))
-                .findFirst().get();
+        .map(policyTemplate -> getDefinitionEvaluation(policyValidation, policyTemplate, context)
+            .exceptionally(e -> getFailedEvaluation(policyTemplate, e)))
+        .collect(Collectors.toList());
+
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+        .thenApply(v -> futures.stream().map(CompletableFuture::join).collect(Collectors.toList()))
+        .thenCompose(evaluations -> {
+          String cacheKey = validationResultCache.getKey(policyEntity, evaluations);
+          List<Result> cachedResults = validationResultCache.getResults(cacheKey);
+
+          if (cachedResults != null) {
+            policiesActivities.setValid(cachedResults.stream().allMatch(Result::getValid));
+            results.addAll(cachedResults);
+            return CompletableFuture.completedFuture(null);
           }
 
-          JsonNode data =
-              policyValidationInput != null ? policyValidationInput.getData() : null;
-          Result result = getResult(policyValidation.getLabels(), policyTemplate,
-              policyTemplateEntity, data);
-
-          if (result != null) {
-            if (!result.getValid()) {
-              policiesActivities.setValid(false);
-              if (result.getViolations().isEmpty()) {
-                ResultViolation resultViolation = new ResultViolation();
-                resultViolation.setMetric(policyTemplateEntity.getName());
-                resultViolation.setMessage("No data exists for component/version");
-                resultViolation.setValid(false);
-                result.getViolations().add(resultViolation);
-              }
+          return evaluatePending(evaluations, policyEntity).thenAccept(v -> {
+            if (addResults(evaluations, policiesActivities, results)) {
+              validationResultCache.putResults(cacheKey, results);
             }
-            results.add(result);
-          }
+          });
         });
   }
 
+  /*
+   * When the bundle carries the rules of this policy revision the evaluations only reference the
+   * policy, otherwise or when OPA has not loaded that revision yet they are sent with their rules.
+   */
+  private CompletableFuture<Void> evaluatePending(List<DefinitionEvaluation> evaluations,
+      PolicyEntity policyEntity) {
+    List<DefinitionEvaluation> pending = evaluations.stream().filter(DefinitionEvaluation::isPending)
+        .collect(Collectors.toList());
+    PolicyEntity reference =
+        opaPolicyDataEnabled && policyDataRegistry.contains(policyEntity) ? policyEntity : null;
+
+    CompletableFuture<Void> combined;
+    if (opaCombinedEnabled && (pending.size() > 1 || reference != null)) {
+      combined = evaluateCombined(pending, reference);
+    } else if (reference != null) {
+      combined = CompletableFuture.allOf(pending.stream()
+          .map(evaluation -> evaluateCombined(Collections.singletonList(evaluation), reference))
+          .toArray(CompletableFuture<?>[]::new));
+    } else {
+      combined = CompletableFuture.completedFuture(null);
+    }
+
+    return combined.thenCompose(v -> CompletableFuture.allOf(pending.stream()
+        .filter(DefinitionEvaluation::isPending)
+        .map(evaluation -> evaluate(evaluation).exceptionally(e -> {
+          checkUnavailable(e);
+          evaluation.setFailedResult(getFailedResult(evaluation.getDefinition(), e));
+          return null;
+        })).toArray(CompletableFuture<?>[]::new)));
+  }
+
+  private static boolean addResults(List<DefinitionEvaluation> evaluations,
+      final PolicyActivityEntity policiesActivities, List<Result> results) {
+    boolean cacheable = true;
+    for (DefinitionEvaluation evaluation : evaluations) {
+      Result result = evaluation.getResult();
+
+      if (result != null && !result.getValid() && result.getViolations().isEmpty()) {
+        ResultViolation resultViolation = new ResultViolation();
+        resultViolation.setMetric(evaluation.getTemplate().getName());
+        resultViolation.setMessage("No data exists for component/version");
+        resultViolation.setValid(false);
+        result.getViolations().add(resultViolation);
+        cacheable = false;
+      }
+
+      if (result != null) {
+        if (!result.getValid()) {
+          policiesActivities.setValid(false);
+        }
+        results.add(result);
+      }
+      cacheable = cacheable && !evaluation.isFailed();
+    }
+    return cacheable;
+  }
+
+  private CompletableFuture<DefinitionEvaluation> getDefinitionEvaluation(
+      PolicyValidation policyValidation, PolicyDefinition policyTemplate,
+      ValidationContext context) {
+    try {
+      return getDefinitionEvaluationFuture(policyValidation, policyTemplate, context);
+    } catch (RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  private CompletableFuture<DefinitionEvaluation> getDefinitionEvaluationFuture(
+      PolicyValidation policyValidation, PolicyDefinition policyTemplate,
+      ValidationContext context) {
+    Timer.Sample sample = validationMetrics.start();
+    PolicyTemplateEntity policyTemplateEntity =
+        context.getTemplate(policyTemplate.getPolicyTemplateId());
+    validationMetrics.stop(sample, STAGE_TEMPLATE_LOAD,
+        policyTemplateEntity == null ? null : policyTemplateEntity.getKey(), null);
+
+    DefinitionEvaluation evaluation = new DefinitionEvaluation(policyTemplate, policyTemplateEntity);
+    if (policyTemplateEntity == null) {
+      return CompletableFuture.completedFuture(evaluation);
+    }
+
+    PolicyValidationInput policyValidationInput = null;
+
+    if (!policyValidation.getInputs().isEmpty()) {
+      policyValidationInput = policyValidation.getInputs().stream()
+          .filter(input -> policyTemplate.getPolicyTemplateId().equals(input.getTemplateId()))
+          .findFirst().get();
+    }
+
+    JsonNode data = policyValidationInput != null ? policyValidationInput.getData() : null;
+    CompletableFuture<Void> dataFuture;
+    if (data != null) {
+      LOGGER.info(data);
+      evaluation.setData(data);
+      dataFuture = CompletableFuture.completedFuture(null);
+    } else {
+      dataFuture = setRepositoryData(policyValidation.getLabels(), evaluation, context);
+    }
+
+    return dataFuture.thenApply(v -> {
+      if (evaluation.isPending() && thresholdEvaluator.supports(policyTemplateEntity.getKey())) {
+        DataResponseResult dataResponseResult = thresholdEvaluator.evaluate(
+            policyTemplateEntity.getKey(), policyTemplate.getRules(), evaluation.getData());
+        if (dataResponseResult != null) {
+          evaluation.setResult(getResult(policyTemplateEntity, dataResponseResult));
+        }
+      }
+      return evaluation;
+    });
+  }
+
+  private DefinitionEvaluation getFailedEvaluation(PolicyDefinition policyTemplate, Throwable e) {
+    DefinitionEvaluation evaluation = new DefinitionEvaluation(policyTemplate, null);
+    evaluation.setFailedResult(getFailedResult(policyTemplate, e));
+    return evaluation;
+  }
+
+  private Result getFailedResult(PolicyDefinition policyTemplate, Throwable e) {
+    Throwable cause = getCause(e);
+    LOGGER.error("Unable to evaluate policy template " + policyTemplate.getPolicyTemplateId(),
+        cause);
+
+    ResultViolation resultViolation = new ResultViolation();
+    resultViolation.setMetric(policyTemplate.getPolicyTemplateId());
+    resultViolation.setMessage("Unable to evaluate policy definition: " + cause.getMessage());
+    resultViolation.setValid(false);
+
+    Result result = getDefaultResult(policyTemplate.getPolicyTemplateId());
+    result.getViolations().add(resultViolation);
+    return result;
+  }
+
   @Override
   public PolicyValidation validateInfo(String policyId) {
     PolicyValidation policyInfo = new PolicyValidation();
     policyInfo.setPolicyId(policyId);
-    PolicyEntity policy = policyRepository.findById(policyId).orElse(new PolicyEntity());
+    PolicyEntity policy = policyCache.getPolicy(policyId);
+    if (policy == null) {
+      policy = new PolicyEntity();
+    }
     List<PolicyValidationInput> policyInfoInputs = new ArrayList<>();
     ObjectMapper objectMapper = new ObjectMapper();
     JsonNode jsonNode = objectMapper.createObjectNode();
@@ -327,7 +631,7 @@ public class BosunServiceImpl implements BosunService {
         });
     policyInfo.setInputs(policyInfoInputs);
     Map<String, String> labels = new HashMap<>();
-    policyTemplateRepository.findAll().forEach(policyTemplate -> {
+    policyTemplateRegistry.getTemplates().forEach(policyTemplate -> {
       if (policyTemplate.getLabels() != null) {
         policyTemplate.getLabels().forEach(label -> labels.put(label, ""));
       }
@@ -340,35 +644,22 @@ public class BosunServiceImpl implements BosunService {
 
   @Override
   public List<PolicyInsights> getInsights(String teamId) {
-    Map<String, PolicyInsights> insights = new HashMap<>();
     LocalDateTime date =
         LocalDateTime.now(clock).minusMonths(Integer.valueOf(insightsPeriodMonths));
 
-    List<PolicyActivityEntity> activities =
-        policyActivityRepository.findByTeamIdAndValidAndCreatedDateAfter(teamId, false, date);
-
-    for (PolicyActivityEntity activity : activities) {
-      String policyId = activity.getPolicyId();
-
-      PolicyInsights policyInsights = insights.get(policyId);
-      if (policyInsights == null && policyRepository.findById(policyId).isPresent()) {
-        Policy policy = getPolicyById(policyId);
-        policyInsights = new PolicyInsights();
-        policyInsights.setPolicyId(policy.getId());
+    List<PolicyInsights> insights = new ArrayList<>();
+    for (PolicyInsights policyInsights : policyActivityRepository
+        .findInsightsByTeamIdAndCreatedDateAfter(teamId,
+            Date.from(date.atZone(clock.getZone()).toInstant()))) {
+      PolicyEntity policy = policyCache.getPolicy(policyInsights.getPolicyId());
+      if (policy != null) {
         policyInsights.setPolicyName(policy.getName());
         policyInsights.setPolicyCreatedDate(policy.getCreatedDate());
+        insights.add(policyInsights);
       }
-
-      PolicyActivitiesInsights policyActivitiesInsights = getPolicyActivitiesInsights(activity);
-
-      if (policyInsights != null) {
-        policyInsights.addInsights(policyActivitiesInsights);
-        insights.put(policyId, policyInsights);
-      }
-
     }
 
-    return new ArrayList<>(insights.values());
+    return insights;
   }
 
   private List<PolicyDefinition> getFilteredDefinition(List<PolicyDefinition> policyDefinitions) {
@@ -381,49 +672,137 @@ public class BosunServiceImpl implements BosunService {
     return filteredDefinitions;
   }
 
-  private PolicyActivitiesInsights getPolicyActivitiesInsights(PolicyActivityEntity activity) {
-    Integer failCount = getFaildedCount(activity);
+  @Override
+  public List<PolicyViolations> getViolations(String teamId) {
 
-    PolicyActivitiesInsights policyActivitiesInsights = null;
+    Map<String, PolicyViolations> violationsMap = new HashMap<>();
 
-    policyActivitiesInsights = new PolicyActivitiesInsights();
-    policyActivitiesInsights.setPolicyActivityId(activity.getReferenceId());
-    policyActivitiesInsights.setPolicyActivityCreatedDate(activity.getCreatedDate());
-    policyActivitiesInsights.setViolations(failCount);
+    LOGGER.info("team.id=" + teamId);
 
-    return policyActivitiesInsights;
+    Map<String, PolicyEntity> policies = policyRepository.findByTeamId(teamId).stream()
+        .filter(entity -> !entity.getStatus().equals(Status.inactive))
+        .collect(Collectors.toMap(PolicyEntity::getId, Function.identity()));
+
+    if (policies.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    List<PolicyActivityEntity> policyActivityEntities = isLatestActivityRebuilt()
+        ? policyActivityRepository.findLatestViolationsByTeamIdAndPolicyIds(teamId,
+            policies.keySet())
+        : policyActivityRepository.findTopDistinctViolationsByTeamIdAndPolicyIds(teamId,
+            policies.keySet());
+
+    LOGGER.info("policyActivities.size=" + policyActivityEntities.size());
+
+    setViolations(violationsMap, policyActivityEntities, policies);
+
+    return new ArrayList<>(violationsMap.values());
   }
 
   @Override
-  public List<PolicyViolations> getViolations(String teamId) {
+  public PolicyViolationsPage getViolations(PolicyViolationsFilter filter, String cursor,
+      int limit) {
+    checkLatestActivityReady();
+    int pageSize = Math.max(1, Math.min(limit, violationsMaxPageSize));
+    Date afterDate = null;
+    String afterId = null;
+
+    if (cursor != null && !cursor.isEmpty()) {
+      try {
+        String[] position =
+            new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+        afterDate = new Date(Long.parseLong(position[0]));
+        afterId = position[1];
+        if (!ObjectId.isValid(afterId)) {
+          throw new IllegalArgumentException(afterId);
+        }
+      } catch (RuntimeException e) {
+        throw new BosunException(BosunError.VIOLATIONS_CURSOR_INVALID.getMessage(cursor), e);
+      }
+    }
 
-    Map<String, PolicyViolations> violationsMap = new HashMap<>();
+    PolicyViolationsPage page = new PolicyViolationsPage();
+    Map<String, PolicyEntity> policies = getActivePolicies(filter);
+    if (policies.isEmpty()) {
+      return page;
+    }
 
-    LOGGER.info("team.id=" + teamId);
+    List<PolicyActivityEntity> activities = policyActivityRepository
+        .findLatestViolations(filter, policies.keySet(), afterDate, afterId, pageSize + 1);
+    for (PolicyActivityEntity activity : activities.subList(0,
+        Math.min(pageSize, activities.size()))) {
+      page.getViolations().add(getViolation(activity, policies));
+    }
 
-    List<PolicyEntity> policyEntities = policyRepository.findByTeamId(teamId);
+    if (activities.size() > pageSize) {
+      PolicyActivityEntity last = activities.get(pageSize - 1);
+      page.setNextCursor(Base64.getUrlEncoder().withoutPadding().encodeToString(
+          (last.getCreatedDate().getTime() + ":" + last.getId()).getBytes(StandardCharsets.UTF_8)));
+    }
+    return page;
+  }
 
-    policyEntities.stream().filter(entity -> !entity.getStatus().equals(Status.inactive))
-        .forEach(entity -> {
-          LOGGER.info("policy.name=" + entity.getName());
+  /*
+   * Checks the filter and looks up its policies right away, while the Mongo cursor is only opened
+   * once the stream is consumed so the caller can write the violations out without holding the
+   * whole list. Closing the stream closes the cursor.
+   */
+  @Override
+  public Stream<PolicyViolations> streamViolations(PolicyViolationsFilter filter) {
+    checkLatestActivityReady();
+    Map<String, PolicyEntity> policies = getActivePolicies(filter);
+    if (policies.isEmpty()) {
+      return Stream.empty();
+    }
 
-          List<PolicyActivityEntity> policyActivityEntities = policyActivityRepository
-              .findTopDistinctViolationsByPolicyIdAndReferenceId(entity.getId());
+    return Stream.of(filter)
+        .flatMap(f -> StreamUtils.createStreamFromIterator(
+            policyActivityRepository.streamLatestViolations(f, policies.keySet())))
+        .map(activity -> getViolation(activity, policies));
+  }
 
-          LOGGER.info("policyActivities.size=" + policyActivityEntities.size());
+  /*
+   * The latest activity collection only holds every reference once its backfill has completed,
+   * until then the violations are aggregated from the activity history.
+   */
+  private boolean isLatestActivityRebuilt() {
+    if (latestActivityEnabled && !latestActivityRebuilt) {
+      latestActivityRebuilt = policyActivityRepository.isLatestActivitiesRebuilt();
+    }
+    return latestActivityEnabled && latestActivityRebuilt;
+  }
 
-          setViolations(violationsMap, policyActivityEntities);
-        });
+  private void checkLatestActivityReady() {
+    if (!latestActivityEnabled) {
+      throw new BosunException(BosunError.VIOLATIONS_LATEST_DISABLED.getMessage());
+    }
+    if (!isLatestActivityRebuilt()) {
+      throw new BosunUnavailableException(BosunError.VIOLATIONS_LATEST_NOT_READY.getMessage());
+    }
+  }
 
-    return new ArrayList<>(violationsMap.values());
+  private Map<String, PolicyEntity> getActivePolicies(PolicyViolationsFilter filter) {
+    return policyRepository.findByTeamId(filter.getTeamId()).stream()
+        .filter(entity -> !entity.getStatus().equals(Status.inactive))
+        .filter(entity -> filter.getPolicyIds().isEmpty()
+            || filter.getPolicyIds().contains(entity.getId()))
+        .collect(Collectors.toMap(PolicyEntity::getId, Function.identity()));
+  }
+
+  private PolicyViolations getViolation(PolicyActivityEntity policyActivity,
+      Map<String, PolicyEntity> policies) {
+    PolicyEntity policy = policies.get(policyActivity.getPolicyId());
+    return getViolation(policy.getId() + policyActivity.getReferenceId(), policyActivity, policy,
+        null);
   }
 
   private void setViolations(Map<String, PolicyViolations> violationsMap,
-      List<PolicyActivityEntity> policyActivities) {
+      List<PolicyActivityEntity> policyActivities, Map<String, PolicyEntity> policies) {
     for (PolicyActivityEntity policyActivity : policyActivities) {
 
       LOGGER.info(new JSONObject(policyActivity).toString());
-      PolicyEntity policy = policyRepository.findById(policyActivity.getPolicyId()).orElse(null);
+      PolicyEntity policy = policies.get(policyActivity.getPolicyId());
 
       if (policy == null) {
         continue;
@@ -513,7 +892,7 @@ public class BosunServiceImpl implements BosunService {
             result.getPolicyTemplateId() != null ? result.getPolicyTemplateId() : "";
         LOGGER.info("policyTemplateId=" + policyTemplateId);
         PolicyTemplateEntity policyTemplateEntity =
-            policyTemplateRepository.findById(policyTemplateId).orElse(null);
+            policyTemplateRegistry.getTemplate(policyTemplateId);
         if (policyTemplateEntity != null && !current.contains(policyTemplateEntity.getName())) {
           LOGGER.info("policyDefinitionName=" + policyTemplateEntity.getName());
           violationsDefinitionTypes.add(policyTemplateEntity.getName());
@@ -523,53 +902,55 @@ public class BosunServiceImpl implements BosunService {
     return violationsDefinitionTypes;
   }
 
-  private Result getResult(Map<String, String> labels, PolicyDefinition policyDefinition,
-      PolicyTemplateEntity policyTemplate, JsonNode data) {
-
-    if (policyTemplate == null) {
-      return null;
-    }
-
-    Result result = getDefaultResult(policyTemplate.getId());
+  private CompletableFuture<Void> setRepositoryData(Map<String, String> labels,
+      DefinitionEvaluation evaluation, ValidationContext context) {
+    PolicyTemplateEntity policyTemplate = evaluation.getTemplate();
     String key = policyTemplate.getKey().toLowerCase(Locale.US);
-    if (data != null) {
-      LOGGER.info(data);
-      result = getResult(policyTemplate, policyDefinition, data);
-    } else {
-      switch (key) {
-        case "static_code_analysis":
-          SonarQubeReport sonarQubeReport = repositoryService
-              .getSonarQubeReport(labels.get("sonarqube-id"), labels.get("sonarqube-version"));
-          result = getResult(policyTemplate, policyDefinition, getJsonNode(sonarQubeReport, key));
-          break;
-        case "unit_tests":
-          SonarQubeReport sonarQubeTestCoverage = repositoryService.getSonarQubeTestCoverage(
-              labels.get("sonarqube-id"), labels.get("sonarqube-version"));
-          result =
-              getResult(policyTemplate, policyDefinition, getJsonNode(sonarQubeTestCoverage, key));
-          break;
-        case "package_safelist":
-          DependencyGraph dependencyGraph =
-              repositoryService.getDependencyGraph(labels.get("artifact-path"),
-                  labels.get("artifact-name"), labels.get("artifact-version"));
-          result = getResult(policyTemplate, policyDefinition, getJsonNode(dependencyGraph, key));
-          break;
-        case "cve_safelist":
-        case "security_issue_analysis":
-          ArtifactSummary summary =
-              repositoryService.getArtifactSummary(labels.get("artifact-path"),
-                  labels.get("artifact-name"), labels.get("artifact-version"));
-          if (!summary.getArtifacts().isEmpty()) {
-            result = getResult(policyTemplate, policyDefinition,
-                getJsonNode(summary.getArtifacts().get(0).getIssues(), key));
-          }
-          break;
-        default:
-          result = null;
-          break;
-      }
+    RepositoryService contextRepositoryService = context.getRepositoryService();
+
+    switch (key) {
+      case "static_code_analysis":
+        return call(STAGE_REPOSITORY_SONARQUBE_REPORT, key,
+            () -> contextRepositoryService.getSonarQubeReportAsync(labels.get("sonarqube-id"),
+                labels.get("sonarqube-version")),
+            () -> contextRepositoryService.getSonarQubeReport(labels.get("sonarqube-id"),
+                labels.get("sonarqube-version")))
+                    .thenAccept(sonarQubeReport -> evaluation
+                        .setData(getJsonNode(sonarQubeReport, key)));
+      case "unit_tests":
+        return call(STAGE_REPOSITORY_SONARQUBE_TEST_COVERAGE, key,
+            () -> contextRepositoryService.getSonarQubeTestCoverageAsync(
+                labels.get("sonarqube-id"), labels.get("sonarqube-version")),
+            () -> contextRepositoryService.getSonarQubeTestCoverage(labels.get("sonarqube-id"),
+                labels.get("sonarqube-version")))
+                    .thenAccept(sonarQubeTestCoverage -> evaluation
+                        .setData(getJsonNode(sonarQubeTestCoverage, key)));
+      case "package_safelist":
+        return call(STAGE_REPOSITORY_DEPENDENCY_GRAPH, key,
+            () -> contextRepositoryService.getDependencyGraphAsync(labels.get("artifact-path"),
+                labels.get("artifact-name"), labels.get("artifact-version")),
+            () -> contextRepositoryService.getDependencyGraph(labels.get("artifact-path"),
+                labels.get("artifact-name"), labels.get("artifact-version")))
+                    .thenAccept(dependencyGraph -> evaluation
+                        .setData(getJsonNode(dependencyGraph, key)));
+      case "cve_safelist":
+      case "security_issue_analysis":
+        return call(STAGE_REPOSITORY_ARTIFACT_SUMMARY, key,
+            () -> contextRepositoryService.getArtifactSummaryAsync(labels.get("artifact-path"),
+                labels.get("artifact-name"), labels.get("artifact-version")),
+            () -> contextRepositoryService.getArtifactSummary(labels.get("artifact-path"),
+                labels.get("artifact-name"), labels.get("artifact-version")))
+                    .thenAccept(summary -> {
+                      if (!summary.getArtifacts().isEmpty()) {
+                        evaluation.setData(
+                            getJsonNode(summary.getArtifacts().get(0).getIssues(), key));
+                      } else {
+                        evaluation.setResult(getDefaultResult(policyTemplate.getId()));
+                      }
+                    });
+      default:
+        return CompletableFuture.completedFuture(null);
     }
-    return result;
   }
 
   private Result getDefaultResult(String policyTemplateId) {
@@ -581,16 +962,70 @@ public class BosunServiceImpl implements BosunService {
     return result;
   }
 
-  private Result getResult(PolicyTemplateEntity policyTemplateEntity,
-      PolicyDefinition policyDefinition, JsonNode data) {
+  private CompletableFuture<Void> evaluate(DefinitionEvaluation evaluation) {
+    PolicyTemplateEntity policyTemplateEntity = evaluation.getTemplate();
+    return callOpenPolicyAgentClient(policyTemplateEntity.getId(), policyTemplateEntity.getKey(),
+        evaluation.getDefinition().getRules(), evaluation.getData())
+            .thenAccept(dataResponse -> evaluation
+                .setResult(getResult(policyTemplateEntity, dataResponse.getResult())));
+  }
 
-    DataResponse dataResponse = callOpenPolicyAgentClient(policyTemplateEntity.getId(),
-        policyTemplateEntity.getKey(), policyDefinition.getRules(), data);
+  private CompletableFuture<Void> evaluateCombined(List<DefinitionEvaluation> evaluations,
+      PolicyEntity reference) {
+    AggregateDataRequestInput dataRequestInput = new AggregateDataRequestInput();
+    for (int i = 0; i < evaluations.size(); i++) {
+      PolicyTemplateEntity policyTemplateEntity = evaluations.get(i).getTemplate();
+      if (AggregatePolicy.supports(policyTemplateEntity.getKey())) {
+        DataRequestInput input = reference == null
+            ? getDataRequestInput(policyTemplateEntity.getId(), policyTemplateEntity.getKey(),
+                evaluations.get(i).getDefinition().getRules(), evaluations.get(i).getData())
+            : getReferenceDataRequestInput(reference, evaluations.get(i));
+        dataRequestInput.getEvaluations().put(String.valueOf(i), input);
+      }
+    }
 
+    if (dataRequestInput.getEvaluations().size() < (reference == null ? 2 : 1)) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    AggregateDataRequest dataRequest = new AggregateDataRequest();
+    dataRequest.setInput(dataRequestInput);
+
+    return call(STAGE_OPA_EVALUATE, AggregatePolicy.KEY,
+        () -> openPolicyAgentClient.validateAggregateDataAsync(dataRequest),
+        () -> openPolicyAgentClient.validateAggregateData(dataRequest))
+            .handle((dataResponse, e) -> {
+              if (e != null) {
+                checkUnavailable(e);
+                LOGGER.error(
+                    "Combined policy evaluation failed, evaluating definitions individually",
+                    getCause(e));
+              } else if (dataResponse != null && dataResponse.getResult() != null
+                  && dataResponse.getResult().getResults() != null) {
+                setCombinedResults(evaluations, dataResponse.getResult().getResults());
+              }
+              return null;
+            });
+  }
+
+  private void setCombinedResults(List<DefinitionEvaluation> evaluations,
+      Map<String, DataResponseResult> dataResponseResults) {
+    for (int i = 0; i < evaluations.size(); i++) {
+      DataResponseResult dataResponseResult = dataResponseResults.get(String.valueOf(i));
+      if (dataResponseResult != null && dataResponseResult.getValid() != null
+          && dataResponseResult.getViolations() != null) {
+        evaluations.get(i)
+            .setResult(getResult(evaluations.get(i).getTemplate(), dataResponseResult));
+      }
+    }
+  }
+
+  private Result getResult(PolicyTemplateEntity policyTemplateEntity,
+      DataResponseResult dataResponseResult) {
     Result result = new Result();
     result.setPolicyTemplateId(policyTemplateEntity.getId());
-    result.setViolations(getResultsViolation(dataResponse.getResult().getViolations()));
-    result.setValid(dataResponse.getResult().getValid());
+    result.setViolations(getResultsViolation(dataResponseResult.getViolations()));
+    result.setValid(dataResponseResult.getValid());
 
     return result;
   }
@@ -608,9 +1043,62 @@ public class BosunServiceImpl implements BosunService {
     return resultsViolations;
   }
 
-  private DataResponse callOpenPolicyAgentClient(String policyTemplateId, String policyTemplateKey,
-      List<Map<String, String>> rules, JsonNode data) {
+  private CompletableFuture<DataResponse> callOpenPolicyAgentClient(String policyTemplateId,
+      String policyTemplateKey, List<Map<String, String>> rules, JsonNode data) {
 
+    DataRequest dataRequest = new DataRequest();
+    dataRequest.setInput(getDataRequestInput(policyTemplateId, policyTemplateKey, rules, data));
+
+    getJsonNode(dataRequest, "dataRequest");
+
+    return call(STAGE_OPA_EVALUATE, policyTemplateKey,
+        () -> openPolicyAgentClient.validateDataAsync(dataRequest),
+        () -> openPolicyAgentClient.validateData(dataRequest)).thenApply(dataResponse -> {
+          getJsonNode(dataResponse, "dataResponse");
+          return dataResponse;
+        });
+  }
+
+  /*
+   * Runs a remote call on the event loop client when non blocking validation is enabled, otherwise
+   * runs the blocking client on the validation executor.
+   */
+  private <T> CompletableFuture<T> call(String stage, String templateKey,
+      Supplier<CompletableFuture<T>> nonBlockingCall, Supplier<T> blockingCall) {
+    return validationMetrics.recordAsync(stage, templateKey, () -> {
+      if (nonBlockingEnabled) {
+        return nonBlockingCall.get();
+      }
+      return CompletableFuture.supplyAsync(blockingCall, validationExecutor);
+    });
+  }
+
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      Throwable cause = getCause(e);
+      throw cause instanceof RuntimeException ? (RuntimeException) cause : e;
+    }
+  }
+
+  private static Throwable getCause(Throwable e) {
+    return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+  }
+
+  /*
+   * OPA rejecting a call is not a policy outcome, so the validation fails with the rejection and no
+   * activity is recorded for it.
+   */
+  private static void checkUnavailable(Throwable e) {
+    Throwable cause = getCause(e);
+    if (cause instanceof OPAUnavailableException) {
+      throw (OPAUnavailableException) cause;
+    }
+  }
+
+  private static DataRequestInput getDataRequestInput(String policyTemplateId,
+      String policyTemplateKey, List<Map<String, String>> rules, JsonNode data) {
     DataRequestPolicy dataRequestPolicy = new DataRequestPolicy();
     dataRequestPolicy.setId(policyTemplateId);
     dataRequestPolicy.setKey(policyTemplateKey);
@@ -619,21 +1107,16 @@ public class BosunServiceImpl implements BosunService {
     DataRequestInput dataRequestInput = new DataRequestInput();
     dataRequestInput.setPolicy(dataRequestPolicy);
     dataRequestInput.setData(data);
-
-    DataRequest dataRequest = new DataRequest();
-    dataRequest.setInput(dataRequestInput);
-
-    getJsonNode(dataRequest, "dataRequest");
-
-    DataResponse dataResponse = openPolicyAgentClient.validateData(dataRequest);
-
-    getJsonNode(dataResponse, "dataResponse");
-
-    return dataResponse;
+    return dataRequestInput;
   }
 
-  private static Integer getFaildedCount(PolicyActivityEntity activity) {
-    return (int) activity.getResults().stream().filter(result -> !result.getValid()).count();
+  private static DataRequestInput getReferenceDataRequestInput(PolicyEntity policyEntity,
+      DefinitionEvaluation evaluation) {
+    DataRequestInput dataRequestInput = getDataRequestInput(evaluation.getTemplate().getId(),
+        evaluation.getTemplate().getKey(), null, evaluation.getData());
+    dataRequestInput.getPolicy().setPolicyId(policyEntity.getId());
+    dataRequestInput.getPolicy().setRevision(PolicyCache.getRevision(policyEntity));
+    return dataRequestInput;
   }
 
   private static JsonNode getJsonNode(Object obj, String key) {
@@ -661,7 +1144,10 @@ public class BosunServiceImpl implements BosunService {
 
     if (policy != null) {
       policy.setStatus(Status.inactive);
+      policy.setRevision(getNextRevision(policy));
       policyRepository.save(policy);
+      policyCache.evict(policyId);
+      policyDataRegistry.requestRefresh();
       response.setStatus(200);
       response.setMessage("Policy deleted");
       response.setError("Policy deleted");
@@ -673,4 +1159,8 @@ public class BosunServiceImpl implements BosunService {
       return response;
     }
   }
+
+  private static Long getNextRevision(PolicyEntity policy) {
+    return policy.getRevision() == null ? 1L : policy.getRevision() + 1;
+  }
 }
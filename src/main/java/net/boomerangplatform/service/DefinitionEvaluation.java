@@ -0,0 +1,65 @@
+package net.boomerangplatform.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import net.boomerangplatform.entity.PolicyTemplateEntity;
+import net.boomerangplatform.model.PolicyDefinition;
+import net.boomerangplatform.model.Result;
+
+public class DefinitionEvaluation {
+
+  private final PolicyDefinition definition;
+
+  private final PolicyTemplateEntity template;
+
+  private JsonNode data;
+
+  private Result result;
+
+  private boolean pending;
+
+  private boolean failed;
+
+  public DefinitionEvaluation(PolicyDefinition definition, PolicyTemplateEntity template) {
+    this.definition = definition;
+    this.template = template;
+  }
+
+  public PolicyDefinition getDefinition() {
+    return definition;
+  }
+
+  public PolicyTemplateEntity getTemplate() {
+    return template;
+  }
+
+  public JsonNode getData() {
+    return data;
+  }
+
+  public void setData(JsonNode data) {
+    this.data = data;
+    this.pending = true;
+  }
+
+  public Result getResult() {
+    return result;
+  }
+
+  public void setResult(Result result) {
+    this.result = result;
+    this.pending = false;
+  }
+
+  public boolean isPending() {
+    return pending;
+  }
+
+  public boolean isFailed() {
+    return failed;
+  }
+
+  public void setFailedResult(Result result) {
+    setResult(result);
+    this.failed = true;
+  }
+}
@@ -0,0 +1,140 @@
+package net.boomerangplatform.service;
+
+import java.util.Date;
+import java.util.UUID;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import net.boomerangplatform.repository.PolicyActivityCustom;
+import net.boomerangplatform.repository.PolicyActivityRepository;
+
+/**
+ * Maintains the indexes of the latest activity collection and backfills it from the activity
+ * history until a rebuild has completed, and on the configured schedule. Rebuilds run off the
+ * startup thread and only on the replica holding the rebuild lock.
+ */
+@Component
+public class LatestActivityRebuildJob {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  /*
+   * Replaced by teamId_valid_createdDate_id, which also serves the violations pages.
+   */
+  private static final String OBSOLETE_INDEX = "teamId_valid_policyId";
+
+  private static final String LOCK_ID = "lock";
+
+  @Value("${bosun.violations.latest.enabled}")
+  private boolean enabled;
+
+  @Value("${bosun.violations.latest.rebuild.lock.seconds}")
+  private long lockSeconds;
+
+  @Autowired
+  private PolicyActivityRepository policyActivityRepository;
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  @Autowired
+  private TaskScheduler taskScheduler;
+
+  private final String owner = UUID.randomUUID().toString();
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void init() {
+    if (!enabled) {
+      return;
+    }
+
+    try {
+      IndexOperations indexOps = mongoTemplate.indexOps(PolicyActivityCustom.LATEST_COLLECTION);
+      indexOps.ensureIndex(new Index().on("policyId", Direction.ASC)
+          .on("referenceId", Direction.ASC).unique().named("policyId_referenceId"));
+      indexOps.ensureIndex(new Index().on("teamId", Direction.ASC).on("valid", Direction.ASC)
+          .on("createdDate", Direction.DESC).on("_id", Direction.DESC)
+          .named("teamId_valid_createdDate_id"));
+      if (indexOps.getIndexInfo().stream()
+          .anyMatch(index -> OBSOLETE_INDEX.equals(index.getName()))) {
+        indexOps.dropIndex(OBSOLETE_INDEX);
+      }
+
+    } catch (RuntimeException e) {
+      LOGGER.error("Unable to initialize the latest activity collection.", e);
+    }
+
+    taskScheduler.schedule(() -> rebuild(true), new Date());
+  }
+
+  @Scheduled(cron = "${bosun.violations.latest.rebuild.cron}")
+  public void rebuild() {
+    rebuild(false);
+  }
+
+  private void rebuild(boolean onlyIfMissing) {
+    if (!enabled) {
+      return;
+    }
+
+    try {
+      if (onlyIfMissing && policyActivityRepository.isLatestActivitiesRebuilt()) {
+        return;
+      }
+      if (!lock()) {
+        LOGGER.info("The latest activity collection is being rebuilt by another instance.");
+        return;
+      }
+
+      try {
+        if (!onlyIfMissing || !policyActivityRepository.isLatestActivitiesRebuilt()) {
+          long start = System.currentTimeMillis();
+          policyActivityRepository.rebuildLatestActivities();
+          LOGGER.info("Rebuilt the latest activity collection in "
+              + (System.currentTimeMillis() - start) + " ms.");
+        }
+      } finally {
+        unlock();
+      }
+    } catch (RuntimeException e) {
+      LOGGER.error("Unable to rebuild the latest activity collection.", e);
+    }
+  }
+
+  /*
+   * Takes the lock document unless another instance holds an unexpired one, in which case the
+   * upsert inserts a second lock document and the unique _id rejects it.
+   */
+  private boolean lock() {
+    Date now = new Date();
+    try {
+      mongoTemplate.upsert(
+          new Query(Criteria.where("_id").is(LOCK_ID).and("expiryDate").lt(now)),
+          new Update().set("owner", owner)
+              .set("expiryDate", new Date(now.getTime() + lockSeconds * 1000)),
+          PolicyActivityCustom.LATEST_STATUS_COLLECTION);
+      return true;
+    } catch (DuplicateKeyException e) {
+      return false;
+    }
+  }
+
+  private void unlock() {
+    mongoTemplate.remove(new Query(Criteria.where("_id").is(LOCK_ID).and("owner").is(owner)),
+        PolicyActivityCustom.LATEST_STATUS_COLLECTION);
+  }
+}
@@ -0,0 +1,42 @@
+package net.boomerangplatform.service;
+
+import org.springframework.core.io.ByteArrayResource;
+
+/**
+ * A built OPA snapshot or delta bundle. The revision is written to the bundle manifest and doubles
+ * as its ETag.
+ */
+public class PolicyBundle {
+
+  private final String revision;
+
+  private final byte[] content;
+
+  private final boolean delta;
+
+  public PolicyBundle(String revision, byte[] content) {
+    this(revision, content, false);
+  }
+
+  public PolicyBundle(String revision, byte[] content, boolean delta) {
+    this.revision = revision;
+    this.content = content;
+    this.delta = delta;
+  }
+
+  public String getRevision() {
+    return revision;
+  }
+
+  public String getETag() {
+    return "\"" + revision + "\"";
+  }
+
+  public boolean isDelta() {
+    return delta;
+  }
+
+  public ByteArrayResource getContent() {
+    return new ByteArrayResource(content);
+  }
+}
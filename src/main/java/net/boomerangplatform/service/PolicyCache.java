@@ -0,0 +1,115 @@
+package net.boomerangplatform.service;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import net.boomerangplatform.entity.PolicyEntity;
+import net.boomerangplatform.repository.PolicyRepository;
+
+@Component
+public class PolicyCache {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  private static final String FIELD_ID = "_id";
+
+  private static final String FIELD_REVISION = "revision";
+
+  @Autowired
+  private PolicyRepository policyRepository;
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Value("${bosun.policies.cache.max.size}")
+  private long maxSize;
+
+  @Value("${bosun.policies.cache.expire.seconds}")
+  private long expireSeconds;
+
+  private LoadingCache<String, Optional<PolicyEntity>> cache;
+
+  @PostConstruct
+  public void init() {
+    cache = CacheBuilder.newBuilder().maximumSize(maxSize)
+        .expireAfterWrite(expireSeconds, TimeUnit.SECONDS).recordStats()
+        .build(CacheLoader.from(policyRepository::findById));
+    GuavaCacheMetrics.monitor(meterRegistry, cache, "bosun.policies");
+  }
+
+  public PolicyEntity getPolicy(String policyId) {
+    if (policyId == null) {
+      return null;
+    }
+
+    try {
+      return cache.getUnchecked(policyId).orElse(null);
+    } catch (UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw e;
+    }
+  }
+
+  public void evict(String policyId) {
+    cache.invalidate(policyId);
+  }
+
+  @Scheduled(fixedDelayString = "${bosun.policies.cache.revision.check.interval.ms}")
+  public void checkRevisions() {
+    Map<String, Long> cached = cache.asMap().values().stream().filter(Optional::isPresent)
+        .map(Optional::get)
+        .collect(Collectors.toMap(PolicyEntity::getId, PolicyCache::getRevision, (a, b) -> a));
+    if (cached.isEmpty()) {
+      return;
+    }
+
+    try {
+      Query query = new Query(Criteria.where(FIELD_ID).in(cached.keySet()));
+      query.fields().include(FIELD_ID).include(FIELD_REVISION);
+
+      Map<String, Long> current = mongoTemplate.find(query, PolicyEntity.class).stream()
+          .collect(Collectors.toMap(PolicyEntity::getId, PolicyCache::getRevision));
+
+      Set<String> stale = cached.entrySet().stream()
+          .filter(entry -> !Objects.equals(entry.getValue(), current.get(entry.getKey())))
+          .map(Map.Entry::getKey).collect(Collectors.toSet());
+
+      if (!stale.isEmpty()) {
+        LOGGER.info("Evicting " + stale.size() + " stale policies from the policy cache.");
+        cache.invalidateAll(stale);
+      }
+    } catch (RuntimeException e) {
+      LOGGER.error("Unable to check policy cache revisions.", e);
+    }
+  }
+
+  /*
+   * Policies saved before revisions were tracked count as revision 0.
+   */
+  static Long getRevision(PolicyEntity policy) {
+    return policy.getRevision() == null ? 0L : policy.getRevision();
+  }
+}
@@ -0,0 +1,17 @@
+package net.boomerangplatform.service;
+
+/**
+ * Published by the policy data registry when a refresh loads a new set of policy rules.
+ */
+public class PolicyDataChangedEvent {
+
+  private final String hash;
+
+  public PolicyDataChangedEvent(String hash) {
+    this.hash = hash;
+  }
+
+  public String getHash() {
+    return hash;
+  }
+}
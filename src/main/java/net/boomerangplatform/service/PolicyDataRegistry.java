@@ -0,0 +1,235 @@
+package net.boomerangplatform.service;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
+import net.boomerangplatform.entity.PolicyEntity;
+import net.boomerangplatform.exception.BosunException;
+import net.boomerangplatform.model.PolicyDefinition;
+import net.boomerangplatform.model.Status;
+import net.boomerangplatform.opa.service.AggregatePolicy;
+import net.boomerangplatform.repository.PolicyRepository;
+
+/**
+ * Holds the rules of every active policy as the data.json document of the OPA bundle, keyed by
+ * policy id and template id, so validation requests only need to reference a policy revision.
+ */
+@Component
+public class PolicyDataRegistry {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  private static final String FIELD_ID = "_id";
+
+  private static final String FIELD_REVISION = "revision";
+
+  @Autowired
+  private PolicyRepository policyRepository;
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  @Autowired
+  private TaskScheduler taskScheduler;
+
+  @Autowired
+  private ApplicationEventPublisher applicationEventPublisher;
+
+  @Value("${bosun.policies.data.refresh.delay.ms}")
+  private long refreshDelay;
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  private final AtomicBoolean refreshRequested = new AtomicBoolean();
+
+  private volatile Snapshot snapshot =
+      new Snapshot("", new byte[0], Collections.emptyMap(), Collections.emptyMap());
+
+  /*
+   * Revisions of every policy read by the last refresh, including those left out of the bundle.
+   */
+  private volatile Map<String, Long> policyRevisions = Collections.emptyMap();
+
+  @PostConstruct
+  public void init() {
+    try {
+      refresh();
+    } catch (RuntimeException e) {
+      LOGGER.error("Unable to load policy data, it will be loaded on the next refresh.", e);
+    }
+  }
+
+  public Snapshot getSnapshot() {
+    return snapshot;
+  }
+
+  /*
+   * Whether the current bundle carries the rules of this policy revision.
+   */
+  public boolean contains(PolicyEntity policy) {
+    return policy != null
+        && Objects.equals(snapshot.revisions.get(policy.getId()), PolicyCache.getRevision(policy));
+  }
+
+  /*
+   * Polling only reads policy revisions, the policies are loaded when one of them changed.
+   */
+  @Scheduled(fixedDelayString = "${bosun.policies.data.refresh.interval.ms}")
+  public void poll() {
+    try {
+      if (isChanged()) {
+        refresh();
+      }
+    } catch (RuntimeException e) {
+      LOGGER.error("Unable to refresh policy data.", e);
+    }
+  }
+
+  /*
+   * Rebuilds the data off the calling thread, once for any number of requests within the delay.
+   * Until then the changed policies are not in the bundle and send their rules inline.
+   */
+  public void requestRefresh() {
+    if (!refreshRequested.compareAndSet(false, true)) {
+      return;
+    }
+
+    try {
+      taskScheduler.schedule(() -> {
+        refreshRequested.set(false);
+        try {
+          refresh();
+        } catch (RuntimeException e) {
+          LOGGER.error("Unable to refresh policy data.", e);
+        }
+      }, new Date(System.currentTimeMillis() + refreshDelay));
+    } catch (TaskRejectedException e) {
+      refreshRequested.set(false);
+      LOGGER.warn("Policy data refresh rejected, it will be refreshed on the next poll.", e);
+    }
+  }
+
+  public synchronized Snapshot refresh() {
+    Map<String, Object> policies = new TreeMap<>();
+    Map<String, Long> revisions = new LinkedHashMap<>();
+    Map<String, Long> checked = new LinkedHashMap<>();
+
+    for (PolicyEntity policy : policyRepository.findAll()) {
+      checked.put(policy.getId(), PolicyCache.getRevision(policy));
+      if (Status.inactive.equals(policy.getStatus())
+          || CollectionUtils.isEmpty(policy.getDefinitions())) {
+        continue;
+      }
+
+      Map<String, List<Map<String, String>>> definitions = getDefinitions(policy);
+      if (definitions == null) {
+        continue;
+      }
+
+      Map<String, Object> entry = new LinkedHashMap<>();
+      entry.put("revision", PolicyCache.getRevision(policy));
+      entry.put("definitions", definitions);
+      policies.put(policy.getId(), entry);
+      revisions.put(policy.getId(), PolicyCache.getRevision(policy));
+    }
+
+    byte[] data;
+    try {
+      data = mapper.writeValueAsBytes(Collections.singletonMap(AggregatePolicy.POLICIES, policies));
+    } catch (JsonProcessingException e) {
+      throw new BosunException(e);
+    }
+
+    String hash = Hashing.sha256().hashBytes(data).toString();
+    if (!hash.equals(snapshot.hash)) {
+      snapshot = new Snapshot(hash, data, revisions, policies);
+      LOGGER.info("Loaded rules of " + revisions.size() + " policies, hash " + hash + ".");
+      applicationEventPublisher.publishEvent(new PolicyDataChangedEvent(hash));
+    }
+    policyRevisions = checked;
+    return snapshot;
+  }
+
+  private boolean isChanged() {
+    Query query = new Query();
+    query.fields().include(FIELD_ID).include(FIELD_REVISION);
+
+    Map<String, Long> current = mongoTemplate.find(query, PolicyEntity.class).stream()
+        .collect(Collectors.toMap(PolicyEntity::getId, PolicyCache::getRevision));
+    return !current.equals(policyRevisions);
+  }
+
+  /*
+   * Evaluations reference rules by template id, so a policy with several definitions of one
+   * template is left out and keeps sending its rules inline.
+   */
+  private static Map<String, List<Map<String, String>>> getDefinitions(PolicyEntity policy) {
+    Map<String, List<Map<String, String>>> definitions = new TreeMap<>();
+    for (PolicyDefinition definition : policy.getDefinitions()) {
+      if (definition.getPolicyTemplateId() != null
+          && !CollectionUtils.isEmpty(definition.getRules())
+          && definitions.put(definition.getPolicyTemplateId(), definition.getRules()) != null) {
+        LOGGER.warn("Policy " + policy.getId() + " has several definitions of template "
+            + definition.getPolicyTemplateId() + ", its rules are left out of the policy data.");
+        return null;
+      }
+    }
+    return definitions;
+  }
+
+  public static final class Snapshot {
+
+    private final String hash;
+
+    private final byte[] data;
+
+    private final Map<String, Long> revisions;
+
+    private final Map<String, Object> policies;
+
+    private Snapshot(String hash, byte[] data, Map<String, Long> revisions,
+        Map<String, Object> policies) {
+      this.hash = hash;
+      this.data = data;
+      this.revisions = Collections.unmodifiableMap(revisions);
+      this.policies = Collections.unmodifiableMap(policies);
+    }
+
+    public String getHash() {
+      return hash;
+    }
+
+    public byte[] getData() {
+      return data;
+    }
+
+    /*
+     * The bosun_policies document entries keyed by policy id.
+     */
+    public Map<String, Object> getPolicies() {
+      return policies;
+    }
+  }
+}
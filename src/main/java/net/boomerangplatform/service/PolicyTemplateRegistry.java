@@ -0,0 +1,176 @@
+package net.boomerangplatform.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest.ChangeStreamRequestOptions;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.boomerangplatform.entity.PolicyTemplateEntity;
+import net.boomerangplatform.exception.BosunException;
+import net.boomerangplatform.repository.PolicyTemplateRepository;
+
+@Component
+public class PolicyTemplateRegistry {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  private static final String COLLECTION = "bosun_templates";
+
+  @Autowired
+  private PolicyTemplateRepository policyTemplateRepository;
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private ApplicationEventPublisher applicationEventPublisher;
+
+  @Value("${bosun.templates.changestream.enabled}")
+  private boolean changeStreamEnabled;
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  private volatile Snapshot snapshot = new Snapshot(0L, "", Collections.emptyList());
+
+  private MessageListenerContainer container;
+
+  @PostConstruct
+  public void init() {
+    try {
+      refresh();
+    } catch (RuntimeException e) {
+      LOGGER.error("Unable to load policy templates, they will be loaded on first use.", e);
+    }
+
+    if (changeStreamEnabled) {
+      container = new DefaultMessageListenerContainer(mongoTemplate);
+      container.register(new ChangeStreamRequest<>(message -> refresh(),
+          new ChangeStreamRequestOptions(mongoTemplate.getDb().getName(), COLLECTION,
+              ChangeStreamOptions.empty())),
+          Document.class);
+      container.start();
+    }
+  }
+
+  @PreDestroy
+  public void destroy() {
+    if (container != null) {
+      container.stop();
+    }
+  }
+
+  public PolicyTemplateEntity getTemplate(String templateId) {
+    PolicyTemplateEntity template = snapshot.templates.get(templateId);
+    ValidationMetrics.recordCacheGet(meterRegistry, "bosun.templates", template != null);
+    if (template == null && templateId != null
+        && policyTemplateRepository.existsById(templateId)) {
+      template = refresh().templates.get(templateId);
+    }
+    return template;
+  }
+
+  public List<PolicyTemplateEntity> getTemplates() {
+    return snapshot.sortedTemplates;
+  }
+
+  public long getRevision() {
+    return snapshot.revision;
+  }
+
+  public Snapshot getSnapshot() {
+    return snapshot;
+  }
+
+  @Scheduled(fixedDelayString = "${bosun.templates.refresh.interval.ms}")
+  public void poll() {
+    try {
+      refresh();
+    } catch (RuntimeException e) {
+      LOGGER.error("Unable to refresh policy templates.", e);
+    }
+  }
+
+  public synchronized Snapshot refresh() {
+    List<PolicyTemplateEntity> templates = policyTemplateRepository.findAll();
+    templates.sort(Comparator.comparing(PolicyTemplateEntity::getId));
+
+    String hash = getHash(templates);
+    Snapshot current = snapshot;
+    if (!hash.equals(current.hash)) {
+      snapshot = new Snapshot(current.revision + 1, hash, templates);
+      LOGGER.info("Loaded " + templates.size() + " policy templates, revision "
+          + snapshot.revision + ".");
+      applicationEventPublisher.publishEvent(new PolicyTemplatesChangedEvent(snapshot.revision));
+    }
+    return snapshot;
+  }
+
+  private String getHash(List<PolicyTemplateEntity> templates) {
+    try {
+      return Hashing.sha256().hashBytes(mapper.writeValueAsBytes(templates)).toString();
+    } catch (JsonProcessingException e) {
+      throw new BosunException(e);
+    }
+  }
+
+  public static final class Snapshot {
+
+    private final long revision;
+
+    private final String hash;
+
+    private final Map<String, PolicyTemplateEntity> templates;
+
+    private final List<PolicyTemplateEntity> sortedTemplates;
+
+    private Snapshot(long revision, String hash, List<PolicyTemplateEntity> templates) {
+      this.revision = revision;
+      this.hash = hash;
+
+      Map<String, PolicyTemplateEntity> byId = new LinkedHashMap<>();
+      templates.forEach(template -> byId.put(template.getId(), template));
+      this.templates = Collections.unmodifiableMap(byId);
+
+      List<PolicyTemplateEntity> sorted = new ArrayList<>(templates);
+      sorted.sort(Comparator.comparing(PolicyTemplateEntity::getOrder,
+          Comparator.nullsLast(Comparator.naturalOrder())));
+      this.sortedTemplates = Collections.unmodifiableList(sorted);
+    }
+
+    public long getRevision() {
+      return revision;
+    }
+
+    public String getHash() {
+      return hash;
+    }
+
+    public List<PolicyTemplateEntity> getTemplates() {
+      return sortedTemplates;
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package net.boomerangplatform.service;
+
+/**
+ * Published by the template registry when a refresh loads a new set of templates.
+ */
+public class PolicyTemplatesChangedEvent {
+
+  private final long revision;
+
+  public PolicyTemplatesChangedEvent(long revision) {
+    this.revision = revision;
+  }
+
+  public long getRevision() {
+    return revision;
+  }
+}
@@ -0,0 +1,18 @@
+package net.boomerangplatform.service;
+
+import net.boomerangplatform.entity.PolicyActivityEntity;
+import net.boomerangplatform.model.PolicyValidation;
+import net.boomerangplatform.model.PolicyValidationJob;
+
+public interface PolicyValidationJobService {
+
+  PolicyValidationJob submitJob(PolicyValidation policyValidation);
+
+  PolicyValidationJob getJob(String jobId);
+
+  PolicyActivityEntity getJobActivity(String jobId);
+
+  void processJobs();
+
+  void renewLeases();
+}
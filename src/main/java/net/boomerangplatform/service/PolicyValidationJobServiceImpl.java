@@ -0,0 +1,279 @@
+package net.boomerangplatform.service;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.boomerangplatform.entity.PolicyActivityEntity;
+import net.boomerangplatform.entity.PolicyValidationJobEntity;
+import net.boomerangplatform.exception.BosunError;
+import net.boomerangplatform.exception.BosunException;
+import net.boomerangplatform.model.JobStatus;
+import net.boomerangplatform.model.PolicyValidation;
+import net.boomerangplatform.model.PolicyValidationJob;
+import net.boomerangplatform.opa.exception.OPAUnavailableException;
+import net.boomerangplatform.repository.PolicyActivityRepository;
+import net.boomerangplatform.repository.PolicyValidationJobRepository;
+
+@Service
+public class PolicyValidationJobServiceImpl implements PolicyValidationJobService {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  private static final String FIELD_ID = "_id";
+
+  private static final String FIELD_STATUS = "status";
+
+  private static final String FIELD_OWNER = "owner";
+
+  private static final String FIELD_ATTEMPTS = "attempts";
+
+  private static final String FIELD_LEASE_EXPIRY_DATE = "leaseExpiryDate";
+
+  private static final String FIELD_RETRY_DATE = "retryDate";
+
+  @Value("${bosun.validation.jobs.worker.enabled}")
+  private boolean workerEnabled;
+
+  @Value("${bosun.validation.jobs.lease.seconds}")
+  private long leaseSeconds;
+
+  @Value("${bosun.validation.jobs.max.attempts}")
+  private int maxAttempts;
+
+  @Value("${bosun.validation.jobs.retry.backoff.ms}")
+  private long retryBackoffMs;
+
+  @Autowired
+  private PolicyValidationJobRepository jobRepository;
+
+  @Autowired
+  private PolicyActivityRepository policyActivityRepository;
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  @Autowired
+  private BosunService bosunService;
+
+  @Autowired
+  private ThreadPoolTaskExecutor validationJobExecutor;
+
+  private final String owner = UUID.randomUUID().toString();
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  private final Set<String> runningJobs = ConcurrentHashMap.newKeySet();
+
+  @Override
+  public PolicyValidationJob submitJob(PolicyValidation policyValidation) {
+    PolicyValidationJobEntity entity = new PolicyValidationJobEntity();
+    entity.setStatus(JobStatus.queued);
+    entity.setPolicyId(policyValidation.getPolicyId());
+    entity.setReferenceId(policyValidation.getReferenceId());
+    entity.setValidation(writeValidation(policyValidation));
+    entity.setAttempts(0);
+    entity.setCreatedDate(new Date());
+
+    return getJob(jobRepository.insert(entity));
+  }
+
+  @Override
+  public PolicyValidationJob getJob(String jobId) {
+    return getJob(getJobEntity(jobId));
+  }
+
+  @Override
+  public PolicyActivityEntity getJobActivity(String jobId) {
+    PolicyValidationJobEntity entity = getJobEntity(jobId);
+
+    if (!JobStatus.completed.equals(entity.getStatus())) {
+      throw new BosunException(
+          BosunError.JOB_NOT_COMPLETED.getMessage(jobId, entity.getStatus()));
+    }
+
+    return policyActivityRepository.findById(entity.getActivityId()).orElseThrow(
+        () -> new BosunException(BosunError.JOB_NOT_FOUND.getMessage(jobId)));
+  }
+
+  @Override
+  @Scheduled(fixedDelayString = "${bosun.validation.jobs.poll.interval.ms}")
+  public void processJobs() {
+    if (!workerEnabled) {
+      return;
+    }
+
+    ThreadPoolExecutor executor = validationJobExecutor.getThreadPoolExecutor();
+    int capacity = executor.getMaximumPoolSize() - executor.getActiveCount()
+        - executor.getQueue().size();
+
+    for (int i = 0; i < capacity; i++) {
+      PolicyValidationJobEntity job = claimJob();
+      if (job == null) {
+        break;
+      }
+      try {
+        validationJobExecutor.execute(() -> runJob(job));
+      } catch (TaskRejectedException e) {
+        releaseJob(job);
+        break;
+      }
+    }
+  }
+
+  /*
+   * Extends the lease of the jobs running here, so a validation that outlasts the lease is not
+   * claimed and run again by another worker.
+   */
+  @Override
+  @Scheduled(fixedDelayString = "${bosun.validation.jobs.lease.renew.interval.ms}")
+  public void renewLeases() {
+    if (runningJobs.isEmpty()) {
+      return;
+    }
+
+    mongoTemplate.updateMulti(
+        new Query(Criteria.where(FIELD_ID).in(runningJobs).and(FIELD_OWNER).is(owner)
+            .and(FIELD_STATUS).is(JobStatus.running)),
+        new Update().set(FIELD_LEASE_EXPIRY_DATE,
+            new Date(System.currentTimeMillis() + leaseSeconds * 1000)),
+        PolicyValidationJobEntity.class);
+  }
+
+  private PolicyValidationJobEntity claimJob() {
+    Date now = new Date();
+
+    Query query = new Query(new Criteria().orOperator(
+        Criteria.where(FIELD_STATUS).is(JobStatus.queued).and(FIELD_RETRY_DATE).not().gt(now),
+        Criteria.where(FIELD_STATUS).is(JobStatus.running).and(FIELD_LEASE_EXPIRY_DATE).lt(now)))
+            .with(new Sort(Sort.Direction.ASC, "createdDate"));
+
+    Update update = new Update().set(FIELD_STATUS, JobStatus.running).set(FIELD_OWNER, owner)
+        .set("startedDate", now)
+        .set(FIELD_LEASE_EXPIRY_DATE, new Date(now.getTime() + leaseSeconds * 1000))
+        .unset(FIELD_RETRY_DATE).inc(FIELD_ATTEMPTS, 1);
+
+    return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+        PolicyValidationJobEntity.class);
+  }
+
+  private void runJob(PolicyValidationJobEntity job) {
+    LOGGER.info("Running validation job " + job.getId() + " (attempt " + job.getAttempts() + ")");
+    runningJobs.add(job.getId());
+
+    Update update = new Update().set("completedDate", new Date()).unset(FIELD_LEASE_EXPIRY_DATE);
+
+    try {
+      if (job.getAttempts() > maxAttempts) {
+        update.set(FIELD_STATUS, JobStatus.failed).set("error",
+            BosunError.JOB_ATTEMPTS_EXCEEDED.getMessage(job.getId(), maxAttempts));
+      } else {
+        PolicyActivityEntity activity = bosunService.validatePolicy(readValidation(job));
+        update.set(FIELD_STATUS, JobStatus.completed).set("activityId", activity.getId());
+      }
+    } catch (RuntimeException e) {
+      if (isTransient(e) && job.getAttempts() < maxAttempts) {
+        LOGGER.warn("Validation job " + job.getId() + " will be retried: " + e.getMessage());
+        update = getRetryUpdate(job);
+      } else {
+        LOGGER.error("Validation job " + job.getId() + " failed", e);
+        update.set(FIELD_STATUS, JobStatus.failed).set("error", e.getMessage());
+      }
+    } finally {
+      runningJobs.remove(job.getId());
+    }
+
+    if (mongoTemplate.updateFirst(getClaimQuery(job), update, PolicyValidationJobEntity.class)
+        .getMatchedCount() == 0) {
+      LOGGER.warn("Validation job " + job.getId() + " lost its lease, attempt "
+          + job.getAttempts() + " is discarded.");
+    }
+  }
+
+  /*
+   * Matches the job only while this worker still holds the claim it was given.
+   */
+  private Query getClaimQuery(PolicyValidationJobEntity job) {
+    return new Query(Criteria.where(FIELD_ID).is(job.getId()).and(FIELD_OWNER).is(owner)
+        .and(FIELD_ATTEMPTS).is(job.getAttempts()));
+  }
+
+  private Update getRetryUpdate(PolicyValidationJobEntity job) {
+    long backoff = retryBackoffMs << Math.min(job.getAttempts() - 1, 16);
+    return new Update().set(FIELD_STATUS, JobStatus.queued).unset(FIELD_OWNER)
+        .unset(FIELD_LEASE_EXPIRY_DATE)
+        .set(FIELD_RETRY_DATE, new Date(System.currentTimeMillis() + backoff));
+  }
+
+  /*
+   * Gives a job the executor could not take back to the queue without counting the attempt.
+   */
+  private void releaseJob(PolicyValidationJobEntity job) {
+    mongoTemplate.updateFirst(getClaimQuery(job),
+        new Update().set(FIELD_STATUS, JobStatus.queued).unset(FIELD_OWNER)
+            .unset(FIELD_LEASE_EXPIRY_DATE).inc(FIELD_ATTEMPTS, -1),
+        PolicyValidationJobEntity.class);
+  }
+
+  /*
+   * OPA being unavailable or a repository call failing on I/O may pass, anything else fails the
+   * job for good.
+   */
+  private static boolean isTransient(Throwable e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof OPAUnavailableException || cause instanceof ResourceAccessException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private PolicyValidationJobEntity getJobEntity(String jobId) {
+    return jobRepository.findById(jobId)
+        .orElseThrow(() -> new BosunException(BosunError.JOB_NOT_FOUND.getMessage(jobId)));
+  }
+
+  private static PolicyValidationJob getJob(PolicyValidationJobEntity entity) {
+    PolicyValidationJob job = new PolicyValidationJob();
+    BeanUtils.copyProperties(entity, job);
+    return job;
+  }
+
+  private String writeValidation(PolicyValidation policyValidation) {
+    try {
+      return mapper.writeValueAsString(policyValidation);
+    } catch (IOException e) {
+      throw new BosunException(e);
+    }
+  }
+
+  private PolicyValidation readValidation(PolicyValidationJobEntity job) {
+    if (job.getValidation() == null) {
+      throw new BosunException(BosunError.JOB_VALIDATION_INVALID.getMessage(job.getId()));
+    }
+    try {
+      return mapper.readValue(job.getValidation(), PolicyValidation.class);
+    } catch (IOException e) {
+      throw new BosunException(BosunError.JOB_VALIDATION_INVALID.getMessage(job.getId()), e);
+    }
+  }
+}
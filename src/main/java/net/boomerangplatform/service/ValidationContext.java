@@ -0,0 +1,35 @@
+package net.boomerangplatform.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.boomerangplatform.entity.PolicyEntity;
+import net.boomerangplatform.entity.PolicyTemplateEntity;
+import net.boomerangplatform.repository.service.MemoizingRepositoryService;
+import net.boomerangplatform.repository.service.RepositoryService;
+
+public class ValidationContext {
+
+  private final PolicyCache policyCache;
+
+  private final PolicyTemplateRegistry policyTemplateRegistry;
+
+  private final RepositoryService repositoryService;
+
+  public ValidationContext(PolicyCache policyCache, PolicyTemplateRegistry policyTemplateRegistry,
+      RepositoryService repositoryService, MeterRegistry meterRegistry) {
+    this.policyCache = policyCache;
+    this.policyTemplateRegistry = policyTemplateRegistry;
+    this.repositoryService = new MemoizingRepositoryService(repositoryService, meterRegistry);
+  }
+
+  public PolicyEntity getPolicy(String policyId) {
+    return policyCache.getPolicy(policyId);
+  }
+
+  public PolicyTemplateEntity getTemplate(String templateId) {
+    return policyTemplateRegistry.getTemplate(templateId);
+  }
+
+  public RepositoryService getRepositoryService() {
+    return repositoryService;
+  }
+}
@@ -0,0 +1,87 @@
+package net.boomerangplatform.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Latency of each validation stage, published as the bosun.validation.stage timer with stage,
+ * template and outcome tags.
+ */
+@Component
+public class ValidationMetrics {
+
+  public static final String STAGE_POLICY_LOAD = "policy_load";
+
+  public static final String STAGE_TEMPLATE_LOAD = "template_load";
+
+  public static final String STAGE_REPOSITORY_SONARQUBE_REPORT = "repository_sonarqube_report";
+
+  public static final String STAGE_REPOSITORY_SONARQUBE_TEST_COVERAGE =
+      "repository_sonarqube_test_coverage";
+
+  public static final String STAGE_REPOSITORY_DEPENDENCY_GRAPH = "repository_dependency_graph";
+
+  public static final String STAGE_REPOSITORY_ARTIFACT_SUMMARY = "repository_artifact_summary";
+
+  public static final String STAGE_OPA_EVALUATE = "opa_evaluate";
+
+  public static final String STAGE_ACTIVITY_SAVE = "activity_save";
+
+  public static final String NO_TEMPLATE = "none";
+
+  private static final String STAGE_METRIC = "bosun.validation.stage";
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  public Timer.Sample start() {
+    return Timer.start(meterRegistry);
+  }
+
+  public void stop(Timer.Sample sample, String stage, String templateKey, Throwable error) {
+    sample.stop(Timer.builder(STAGE_METRIC).tag("stage", stage)
+        .tag("template", templateKey == null ? NO_TEMPLATE : templateKey)
+        .tag("outcome", error == null ? "success" : "error").publishPercentileHistogram()
+        .register(meterRegistry));
+  }
+
+  public <T> T record(String stage, String templateKey, Supplier<T> call) {
+    Timer.Sample sample = start();
+    try {
+      T result = call.get();
+      stop(sample, stage, templateKey, null);
+      return result;
+    } catch (RuntimeException e) {
+      stop(sample, stage, templateKey, e);
+      throw e;
+    }
+  }
+
+  public <T> CompletableFuture<T> recordAsync(String stage, String templateKey,
+      Supplier<CompletableFuture<T>> call) {
+    Timer.Sample sample = start();
+    try {
+      return call.get().whenComplete((result, e) -> stop(sample, stage, templateKey, e));
+    } catch (RuntimeException e) {
+      stop(sample, stage, templateKey, e);
+      throw e;
+    }
+  }
+
+  public void recordCacheGet(String cache, boolean hit) {
+    recordCacheGet(meterRegistry, cache, hit);
+  }
+
+  /*
+   * Uses the cache.gets meter of the Guava cache binders so every cache reports hits and misses
+   * the same way.
+   */
+  public static void recordCacheGet(MeterRegistry meterRegistry, String cache, boolean hit) {
+    meterRegistry.counter("cache.gets", "cache", cache, "result", hit ? "hit" : "miss")
+        .increment();
+  }
+}
@@ -0,0 +1,112 @@
+package net.boomerangplatform.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import net.boomerangplatform.entity.PolicyEntity;
+import net.boomerangplatform.exception.BosunException;
+import net.boomerangplatform.model.Result;
+import net.boomerangplatform.model.ResultViolation;
+
+@Component
+public class ValidationResultCache {
+
+  @Autowired
+  private PolicyTemplateRegistry policyTemplateRegistry;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Value("${bosun.validation.results.cache.enabled}")
+  private boolean enabled;
+
+  @Value("${bosun.validation.results.cache.max.size}")
+  private long maxSize;
+
+  @Value("${bosun.validation.results.cache.expire.seconds}")
+  private long expireSeconds;
+
+  private final ObjectMapper mapper =
+      new ObjectMapper().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+  private Cache<String, List<Result>> cache;
+
+  @PostConstruct
+  public void init() {
+    cache = CacheBuilder.newBuilder().maximumSize(maxSize)
+        .expireAfterWrite(expireSeconds, TimeUnit.SECONDS).recordStats().build();
+    GuavaCacheMetrics.monitor(meterRegistry, cache, "bosun.validation.results");
+  }
+
+  /*
+   * Returns null when a definition failed to load its data, as the key would not identify the
+   * artifact scan.
+   */
+  public String getKey(PolicyEntity policy, List<DefinitionEvaluation> evaluations) {
+    if (!enabled || evaluations.stream().anyMatch(DefinitionEvaluation::isFailed)) {
+      return null;
+    }
+
+    List<Object> data = new ArrayList<>();
+    for (DefinitionEvaluation evaluation : evaluations) {
+      data.add(Arrays.asList(evaluation.getDefinition().getPolicyTemplateId(),
+          evaluation.getData()));
+    }
+
+    List<Object> key = Arrays.asList(policy.getId(), policy.getRevision(),
+        policyTemplateRegistry.getRevision(), policy.getDefinitions(), data);
+    try {
+      return Hashing.sha256().hashBytes(mapper.writeValueAsBytes(key)).toString();
+    } catch (JsonProcessingException e) {
+      throw new BosunException(e);
+    }
+  }
+
+  public List<Result> getResults(String key) {
+    if (key == null) {
+      return null;
+    }
+
+    List<Result> results = cache.getIfPresent(key);
+    return results == null ? null : copy(results);
+  }
+
+  public void putResults(String key, List<Result> results) {
+    if (key != null) {
+      cache.put(key, copy(results));
+    }
+  }
+
+  private static List<Result> copy(List<Result> results) {
+    List<Result> copies = new ArrayList<>();
+    for (Result result : results) {
+      Result copy = new Result();
+      BeanUtils.copyProperties(result, copy);
+      if (result.getViolations() != null) {
+        List<ResultViolation> violations = new ArrayList<>();
+        for (ResultViolation violation : result.getViolations()) {
+          ResultViolation violationCopy = new ResultViolation();
+          BeanUtils.copyProperties(violation, violationCopy);
+          violations.add(violationCopy);
+        }
+        copy.setViolations(violations);
+      }
+      copies.add(copy);
+    }
+    return copies;
+  }
+}
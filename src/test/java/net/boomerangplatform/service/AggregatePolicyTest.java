@@ -0,0 +1,61 @@
+package net.boomerangplatform.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.Arrays;
+import org.junit.Test;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.boomerangplatform.opa.model.DataRequestPolicy;
+import net.boomerangplatform.opa.service.AggregatePolicy;
+
+public class AggregatePolicyTest {
+
+  @Test
+  public void testInlineAndReferenceRules() {
+    String rego = AggregatePolicy.getRego(Arrays.asList("unit_tests", "static_code_analysis"));
+
+    assertTrue(rego.startsWith("package bosun_aggregate\n"));
+    assertEquals(4, rego.split("results\\[id\\] = result \\{").length - 1);
+    assertTrue(rego.indexOf("\"static_code_analysis\"") < rego.indexOf("\"unit_tests\""));
+
+    assertTrue(rego.contains("    evaluation.policy.key == \"unit_tests\"\n"
+        + "    not evaluation.policy.policyId\n"
+        + "    result := data.unit_tests with input as evaluation\n"));
+    assertTrue(rego.contains("    evaluation.policy.key == \"unit_tests\"\n"
+        + "    policy := data.bosun_policies[evaluation.policy.policyId]\n"
+        + "    policy.revision == evaluation.policy.revision\n"
+        + "    rules := policy.definitions[evaluation.policy.id]\n"
+        + "    result := data.unit_tests with input as {\n"
+        + "        \"policy\": {\"id\": evaluation.policy.id, \"key\": evaluation.policy.key, "
+        + "\"rules\": rules},\n"
+        + "        \"data\": evaluation.data\n"
+        + "    }\n"));
+  }
+
+  @Test
+  public void testUnsupportedKeysAreSkipped() {
+    String rego = AggregatePolicy.getRego(
+        Arrays.asList("bosun_aggregate", "bosun_policies", "package-safelist", "cve_safelist"));
+
+    assertEquals(2, rego.split("results\\[id\\] = result \\{").length - 1);
+    assertFalse(rego.contains("data.bosun_aggregate with"));
+    assertFalse(rego.contains("package-safelist"));
+  }
+
+  @Test
+  public void testReferenceInputOmitsRules() {
+    DataRequestPolicy policy = new DataRequestPolicy();
+    policy.setId("5cd49777f6ea74a9bb6ac629");
+    policy.setKey("static_code_analysis");
+    policy.setPolicyId("5db85e35110fc4000140a5ad");
+    policy.setRevision(3L);
+
+    JsonNode json = new ObjectMapper().valueToTree(policy);
+
+    assertFalse(json.has("rules"));
+    assertEquals("5db85e35110fc4000140a5ad", json.get("policyId").asText());
+    assertEquals(3L, json.get("revision").asLong());
+  }
+}
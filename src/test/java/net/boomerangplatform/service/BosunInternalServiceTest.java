@@ -0,0 +1,279 @@
+package net.boomerangplatform.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.StreamUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.boomerangplatform.entity.PolicyEntity;
+import net.boomerangplatform.entity.PolicyTemplateEntity;
+import net.boomerangplatform.model.PolicyDefinition;
+import net.boomerangplatform.model.Status;
+import net.boomerangplatform.repository.PolicyRepository;
+import net.boomerangplatform.repository.PolicyTemplateRepository;
+
+/*
+ * Builds bundles from registries backed by stubbed repositories, which publish their change events
+ * through the test context.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = BosunInternalServiceTest.Config.class)
+@TestPropertySource(properties = {"bosun.templates.changestream.enabled=false",
+    "bosun.bundle.delta.enabled=true", "bosun.bundle.delta.history.size=4",
+    "bosun.policies.data.refresh.delay.ms=1000"})
+@DirtiesContext(classMode = ClassMode.AFTER_EACH_TEST_METHOD)
+public class BosunInternalServiceTest {
+
+  @Configuration
+  @Import({BosunInternalServiceImpl.class, PolicyTemplateRegistry.class,
+      PolicyDataRegistry.class})
+  static class Config {
+
+    @Bean
+    public MeterRegistry meterRegistry() {
+      return new SimpleMeterRegistry();
+    }
+  }
+
+  @Autowired
+  private BosunInternalServiceImpl bosunInternalService;
+
+  @Autowired
+  private PolicyTemplateRegistry policyTemplateRegistry;
+
+  @Autowired
+  private PolicyDataRegistry policyDataRegistry;
+
+  @MockBean
+  private PolicyTemplateRepository policyTemplateRepository;
+
+  @MockBean
+  private PolicyRepository policyRepository;
+
+  @MockBean
+  private MongoTemplate mongoTemplate;
+
+  @MockBean
+  private TaskScheduler taskScheduler;
+
+  private final List<PolicyTemplateEntity> templates = new ArrayList<>();
+
+  private final List<PolicyEntity> policies = new ArrayList<>();
+
+  @Before
+  public void setUp() {
+    templates.add(getTemplate("5cd49777f6ea74a9bb6ac629", "static_code_analysis"));
+    when(policyTemplateRepository.findAll()).thenAnswer(invocation -> new ArrayList<>(templates));
+    when(policyRepository.findAll()).thenAnswer(invocation -> new ArrayList<>(policies));
+    policyTemplateRegistry.refresh();
+    policyDataRegistry.refresh();
+  }
+
+  @Test
+  public void testNextBundleReleasedOnTemplatesChanged() throws Exception {
+    PolicyBundle current = bosunInternalService.getBundle();
+    CompletableFuture<PolicyBundle> next = bosunInternalService.getNextBundle(current.getRevision());
+    assertFalse(next.isDone());
+
+    templates.add(getTemplate("5ce312a72b9465b3a44aaa57", "unit_tests"));
+    policyTemplateRegistry.refresh();
+
+    assertTrue(next.isDone());
+    assertNotEquals(current.getRevision(), next.get().getRevision());
+    assertEquals(bosunInternalService.getBundle().getRevision(), next.get().getRevision());
+    assertTrue(getWaiters().isEmpty());
+  }
+
+  @Test
+  public void testNextBundleReleasedOnDataChanged() throws Exception {
+    PolicyBundle current = bosunInternalService.getBundle();
+    CompletableFuture<PolicyBundle> next = bosunInternalService.getNextBundle(current.getRevision());
+    assertFalse(next.isDone());
+
+    policies.add(getPolicy("5db85e35110fc4000140a5ad", 1L));
+    policyDataRegistry.refresh();
+
+    assertTrue(next.isDone());
+    assertNotEquals(current.getRevision(), next.get().getRevision());
+    assertTrue(getWaiters().isEmpty());
+  }
+
+  @Test
+  public void testNextBundleForOtherRevisionCompletesImmediately() {
+    CompletableFuture<PolicyBundle> next = bosunInternalService.getNextBundle("unknown");
+
+    assertTrue(next.isDone());
+    assertTrue(getWaiters().isEmpty());
+  }
+
+  @Test
+  public void testCancelledPollIsRemoved() {
+    PolicyBundle current = bosunInternalService.getBundle();
+    CompletableFuture<PolicyBundle> next = bosunInternalService.getNextBundle(current.getRevision());
+    assertEquals(1, getWaiters().size());
+
+    next.cancel(false);
+
+    assertTrue(getWaiters().isEmpty());
+  }
+
+  @Test
+  public void testDeltaUpsertsAndRemovesPolicies() throws IOException {
+    policies.add(getPolicy("team/a~1", 1L));
+    policies.add(getPolicy("5db85e35110fc4000140a5ad", 1L));
+    policies.add(getPolicy("5dba1ce19e0f890001153730", 1L));
+    String from = refreshData();
+
+    policies.set(0, getPolicy("team/a~1", 2L));
+    policies.remove(2);
+    policies.add(getPolicy("5db9a8c7b01c530001b838d1", 1L));
+    String to = refreshData();
+
+    PolicyBundle delta = bosunInternalService.getBundle(from);
+    assertTrue(delta.isDelta());
+    assertEquals(to, delta.getRevision());
+
+    Map<String, byte[]> entries = getEntries(delta);
+    assertEquals(Arrays.asList("patch.json", ".manifest"), new ArrayList<>(entries.keySet()));
+    assertEquals("{\"revision\":\"" + to + "\"}",
+        new String(entries.get(".manifest"), StandardCharsets.UTF_8));
+
+    JsonNode operations = new ObjectMapper().readTree(entries.get("patch.json")).get("data");
+    assertEquals(3, operations.size());
+    assertEquals("upsert", operations.get(0).get("op").asText());
+    assertEquals("/bosun_policies/5db9a8c7b01c530001b838d1",
+        operations.get(0).get("path").asText());
+    assertEquals("upsert", operations.get(1).get("op").asText());
+    assertEquals("/bosun_policies/team~1a~01", operations.get(1).get("path").asText());
+    assertEquals(2L, operations.get(1).get("value").get("revision").asLong());
+    assertEquals("remove", operations.get(2).get("op").asText());
+    assertEquals("/bosun_policies/5dba1ce19e0f890001153730",
+        operations.get(2).get("path").asText());
+    assertFalse(operations.get(2).has("value"));
+  }
+
+  @Test
+  public void testDeltaWithinHistoryWindow() {
+    List<String> revisions = new ArrayList<>();
+    for (long revision = 1; revision <= 5; revision++) {
+      policies.clear();
+      policies.add(getPolicy("5db85e35110fc4000140a5ad", revision));
+      revisions.add(refreshData());
+    }
+
+    assertFalse(bosunInternalService.getBundle(revisions.get(0)).isDelta());
+    assertTrue(bosunInternalService.getBundle(revisions.get(1)).isDelta());
+    assertTrue(bosunInternalService.getBundle(revisions.get(3)).isDelta());
+  }
+
+  @Test
+  public void testTemplateChangeFallsBackToSnapshot() {
+    policies.add(getPolicy("5db85e35110fc4000140a5ad", 1L));
+    String from = refreshData();
+
+    templates.add(getTemplate("5ce312a72b9465b3a44aaa57", "unit_tests"));
+    policyTemplateRegistry.refresh();
+    PolicyBundle current = bosunInternalService.getBundle();
+
+    PolicyBundle bundle = bosunInternalService.getBundle(from);
+    assertFalse(bundle.isDelta());
+    assertEquals(current.getRevision(), bundle.getRevision());
+  }
+
+  @Test
+  public void testUnknownRevisionFallsBackToSnapshot() {
+    PolicyBundle current = bosunInternalService.getBundle();
+
+    PolicyBundle bundle = bosunInternalService.getBundle("unknown");
+    assertFalse(bundle.isDelta());
+    assertEquals(current.getRevision(), bundle.getRevision());
+    assertEquals(current, bosunInternalService.getBundle(current.getRevision()));
+  }
+
+  private String refreshData() {
+    policyDataRegistry.refresh();
+    return bosunInternalService.getBundle().getRevision();
+  }
+
+  private static Map<String, byte[]> getEntries(PolicyBundle bundle) throws IOException {
+    Map<String, byte[]> entries = new LinkedHashMap<>();
+    try (TarArchiveInputStream tais = new TarArchiveInputStream(
+        new GZIPInputStream(new ByteArrayInputStream(bundle.getContent().getByteArray())))) {
+      TarArchiveEntry entry;
+      while ((entry = tais.getNextTarEntry()) != null) {
+        entries.put(entry.getName(), StreamUtils.copyToByteArray(tais));
+      }
+    }
+    return entries;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<CompletableFuture<PolicyBundle>, String> getWaiters() {
+    return (Map<CompletableFuture<PolicyBundle>, String>) ReflectionTestUtils
+        .getField(bosunInternalService, "waiters");
+  }
+
+  private static PolicyTemplateEntity getTemplate(String id, String key) {
+    PolicyTemplateEntity template = new PolicyTemplateEntity();
+    template.setId(id);
+    template.setKey(key);
+    template.setName(key);
+    template.setRego(Base64.getEncoder()
+        .encodeToString(("package " + key + "\n").getBytes(StandardCharsets.UTF_8)));
+    return template;
+  }
+
+  private static PolicyEntity getPolicy(String id, Long revision) {
+    Map<String, String> rule = new HashMap<>();
+    rule.put("metric", "issues-total");
+    rule.put("operator", "less than or equal");
+    rule.put("value", "1");
+
+    PolicyDefinition definition = new PolicyDefinition();
+    definition.setPolicyTemplateId("5cd49777f6ea74a9bb6ac629");
+    definition.setRules(Collections.singletonList(rule));
+
+    PolicyEntity policy = new PolicyEntity();
+    policy.setId(id);
+    policy.setStatus(Status.active);
+    policy.setRevision(revision);
+    policy.setDefinitions(Arrays.asList(definition));
+    return policy;
+  }
+}
@@ -1,6 +1,8 @@
 package net.boomerangplatform.service;
 
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
 import java.io.IOException;
@@ -9,15 +11,21 @@ import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
@@ -26,16 +34,24 @@ import org.springframework.test.web.client.MockRestServiceServer;
 import org.springframework.web.client.RestTemplate;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import net.boomerangplatform.Application;
 import net.boomerangplatform.MongoConfig;
 import net.boomerangplatform.entity.PolicyActivityEntity;
 import net.boomerangplatform.model.Policy;
+import net.boomerangplatform.model.PolicyActivitiesInsights;
 import net.boomerangplatform.model.PolicyDefinition;
 import net.boomerangplatform.model.PolicyInsights;
 import net.boomerangplatform.model.PolicyValidation;
+import net.boomerangplatform.model.PolicyValidationInput;
+import net.boomerangplatform.model.PolicyValidationResult;
 import net.boomerangplatform.model.PolicyViolations;
+import net.boomerangplatform.model.PolicyViolationsFilter;
+import net.boomerangplatform.model.PolicyViolationsPage;
 import net.boomerangplatform.mongo.entity.CiComponentActivityEntity;
 import net.boomerangplatform.mongo.service.CiComponentActivityService;
+import net.boomerangplatform.repository.PolicyActivityCustom;
+import net.boomerangplatform.repository.PolicyActivityRepository;
 import net.boomerangplatform.repository.model.Artifact;
 import net.boomerangplatform.repository.model.ArtifactPackage;
 import net.boomerangplatform.repository.model.ArtifactSummary;
@@ -64,6 +80,13 @@ public class BosunServiceTest extends BosunTests {
   private BosunService bosunService;
 
   @Autowired
+  private PolicyActivityRepository policyActivityRepository;
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  @Autowired
+  @Qualifier("opaRestTemplate")
   RestTemplate restTemplate;
 
   private MockRestServiceServer server;
@@ -169,6 +192,32 @@ public class BosunServiceTest extends BosunTests {
     Assert.assertEquals(0, insights.size());
   }
 
+  @Test
+  public void testGetInsightsByPolicy() throws IOException {
+    List<PolicyInsights> insights = bosunService.getInsights("5db85635110fc4000140a5ab").stream()
+        .sorted(Comparator.comparing(PolicyInsights::getPolicyId)).collect(Collectors.toList());
+
+    Assert.assertEquals(2, insights.size());
+
+    PolicyInsights tyson = insights.get(0);
+    Assert.assertEquals("5db9a8c7b01c530001b838d1", tyson.getPolicyId());
+    Assert.assertEquals("Tyson 4", tyson.getPolicyName());
+    Assert.assertEquals(
+        Arrays.asList("boomerangServiceFlow", "boomerangServiceFlow", "glenda1234",
+            "boomerangServiceFlow", "boomerangServiceFlow"),
+        tyson.getInsights().stream().map(PolicyActivitiesInsights::getPolicyActivityId)
+            .collect(Collectors.toList()));
+    Assert.assertTrue(
+        tyson.getInsights().stream().allMatch(insight -> insight.getViolations() == 1));
+
+    PolicyInsights glen = insights.get(1);
+    Assert.assertEquals("5dba1ce19e0f890001153730", glen.getPolicyId());
+    Assert.assertEquals("Glens Life", glen.getPolicyName());
+    Assert.assertEquals(5, glen.getInsights().size());
+    Assert.assertTrue(
+        glen.getInsights().stream().allMatch(insight -> insight.getViolations() == 1));
+  }
+
   @Test
   public void testValidatePolicyWithStaticCodeAnalyse() throws JsonProcessingException {
 
@@ -310,14 +359,142 @@ public class BosunServiceTest extends BosunTests {
 
   }
 
+  @Test
+  public void testValidatePolicies() throws JsonProcessingException {
+
+    server = MockRestServiceServer.bindTo(restTemplate).build();
+
+    this.server.expect(once(), requestTo("http://localhost:8181/v1/data/static_code_analysis"))
+        .andExpect(method(HttpMethod.POST)).andRespond(
+            withSuccess(loadResourceAsString("dataResponse.json"), MediaType.APPLICATION_JSON));
+
+    Map<String, String> label = new HashMap<>();
+    label.put("sonarqube-id", "");
+    label.put("sonarqube-version", "");
+    label.put("artifact-version", "");
+    label.put("artifact-path", "");
+    label.put("artifact-name", "");
+
+    ObjectNode sonarQubeData = new ObjectMapper().valueToTree(getSonarQubeReport());
+    sonarQubeData.put("referenceId", "batch-1");
+
+    PolicyValidationInput sonarQubeInput = new PolicyValidationInput();
+    sonarQubeInput.setTemplateId("5cd49777f6ea74a9bb6ac629");
+    sonarQubeInput.setData(sonarQubeData);
+
+    PolicyValidation opaPolicyValidation = new PolicyValidation();
+    opaPolicyValidation.setPolicyId("5db85e35110fc4000140a5ad");
+    opaPolicyValidation.setReferenceId("batch-1");
+    opaPolicyValidation.setLabels(label);
+    opaPolicyValidation.setInputs(Arrays.asList(sonarQubeInput));
+
+    PolicyValidation missingPolicyValidation = new PolicyValidation();
+    missingPolicyValidation.setPolicyId("000000000000000000000000");
+    missingPolicyValidation.setReferenceId("batch-2");
+    missingPolicyValidation.setLabels(label);
+    missingPolicyValidation.setInputs(new ArrayList<>());
+
+    PolicyValidation policyValidation = new PolicyValidation();
+    policyValidation.setPolicyId("5dba1ce19e0f890001153730");
+    policyValidation.setReferenceId("batch-3");
+    policyValidation.setLabels(label);
+    policyValidation.setInputs(new ArrayList<>());
+
+    List<PolicyValidationResult> results = bosunService.validatePolicies(
+        Arrays.asList(opaPolicyValidation, missingPolicyValidation, policyValidation));
+
+    Assert.assertEquals(3, results.size());
+
+    PolicyActivityEntity opaEntity = results.get(0).getActivity();
+    Assert.assertNotNull(opaEntity.getId());
+    Assert.assertEquals("5db85e35110fc4000140a5ad", opaEntity.getPolicyId());
+    Assert.assertEquals("batch-1", opaEntity.getReferenceId());
+    Assert.assertEquals(Boolean.FALSE, opaEntity.getValid());
+    Assert.assertEquals("5cd49777f6ea74a9bb6ac629",
+        opaEntity.getResults().get(0).getPolicyTemplateId());
+    Assert.assertNull(results.get(0).getError());
+
+    Assert.assertNull(results.get(1).getActivity());
+    Assert.assertEquals("No Policy found with ID of 000000000000000000000000",
+        results.get(1).getError());
+
+    PolicyActivityEntity savedEntity = results.get(2).getActivity();
+    Assert.assertNotNull(savedEntity.getId());
+    Assert.assertEquals("5dba1ce19e0f890001153730", savedEntity.getPolicyId());
+    Assert.assertEquals("batch-3", savedEntity.getReferenceId());
+    Assert.assertEquals(Boolean.FALSE, savedEntity.getValid());
+    Assert.assertNull(results.get(2).getError());
+
+    server.verify();
+  }
+
   @Test
   public void testGetViolations() throws JsonProcessingException {
     String teamId = "5db31d8c58b3779d106c508b";
+    policyActivityRepository.rebuildLatestActivities();
 
     List<PolicyViolations> violations = bosunService.getViolations(teamId);
     Assert.assertEquals(0, violations.size());
   }
 
+  @Test
+  public void testGetViolationsLatestPerReference() throws JsonProcessingException {
+    policyActivityRepository.rebuildLatestActivities();
+
+    List<PolicyViolations> violations = bosunService.getViolations("5db85635110fc4000140a5ab")
+        .stream().sorted(Comparator.comparing(PolicyViolations::getId))
+        .collect(Collectors.toList());
+
+    Assert.assertEquals(3, violations.size());
+
+    Assert.assertEquals("5db9a8c7b01c530001b838d1", violations.get(0).getPolicyId());
+    Assert.assertEquals("boomerangServiceFlow", violations.get(0).getReferenceId());
+    Assert.assertEquals(1, violations.get(0).getNbrViolations().intValue());
+    Assert.assertEquals("12 less than or equal 0 was not satisfied",
+        violations.get(0).getViolations().get(0).getMessage());
+
+    Assert.assertEquals("5db9a8c7b01c530001b838d1", violations.get(1).getPolicyId());
+    Assert.assertEquals("glenda1234", violations.get(1).getReferenceId());
+    Assert.assertEquals("2 less than or equal 0 was not satisfied",
+        violations.get(1).getViolations().get(0).getMessage());
+
+    Assert.assertEquals("5dba1ce19e0f890001153730", violations.get(2).getPolicyId());
+    Assert.assertEquals("Glens Life", violations.get(2).getPolicyName());
+    Assert.assertEquals("No data exists for component/version",
+        violations.get(2).getViolations().get(0).getMessage());
+  }
+
+  @Test
+  public void testGetViolationsPageOnSameCreatedDate() {
+    policyActivityRepository.rebuildLatestActivities();
+    Date createdDate = new Date(1575158400000L);
+    for (String referenceId : Arrays.asList("tie-1", "tie-2", "tie-3")) {
+      PolicyActivityEntity activity = new PolicyActivityEntity();
+      activity.setTeamId("5db85635110fc4000140a5ab");
+      activity.setPolicyId("5db9a8c7b01c530001b838d1");
+      activity.setReferenceId(referenceId);
+      activity.setCreatedDate(createdDate);
+      activity.setValid(false);
+      activity.setResults(new ArrayList<>());
+      mongoTemplate.insert(activity, PolicyActivityCustom.LATEST_COLLECTION);
+    }
+
+    PolicyViolationsFilter filter = new PolicyViolationsFilter();
+    filter.setTeamId("5db85635110fc4000140a5ab");
+    filter.setPolicyIds(Arrays.asList("5db9a8c7b01c530001b838d1"));
+
+    List<String> referenceIds = new ArrayList<>();
+    String cursor = null;
+    do {
+      PolicyViolationsPage page = bosunService.getViolations(filter, cursor, 2);
+      page.getViolations().forEach(violation -> referenceIds.add(violation.getReferenceId()));
+      cursor = page.getNextCursor();
+    } while (cursor != null);
+
+    Assert.assertEquals(Arrays.asList("tie-3", "tie-2", "tie-1", "boomerangServiceFlow",
+        "glenda1234"), referenceIds);
+  }
+
   private SonarQubeReport getSonarQubeReport() {
     SonarQubeReport report = new SonarQubeReport();
 
@@ -0,0 +1,197 @@
+package net.boomerangplatform.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.boomerangplatform.Application;
+import net.boomerangplatform.MongoConfig;
+import net.boomerangplatform.entity.PolicyActivityEntity;
+import net.boomerangplatform.model.Policy;
+import net.boomerangplatform.model.PolicyDefinition;
+import net.boomerangplatform.model.PolicyValidation;
+import net.boomerangplatform.model.PolicyValidationInput;
+import net.boomerangplatform.model.Result;
+import net.boomerangplatform.opa.exception.OPAClientException;
+import net.boomerangplatform.opa.model.AggregateDataResponse;
+import net.boomerangplatform.opa.model.AggregateDataResponseResult;
+import net.boomerangplatform.opa.model.DataResponse;
+import net.boomerangplatform.opa.model.DataResponseResult;
+import net.boomerangplatform.opa.model.DataResponseResultViolation;
+import net.boomerangplatform.opa.service.OpenPolicyAgentClient;
+
+/*
+ * Validates a policy with two OPA-bound definitions, security_issue_analysis and cve_safelist,
+ * which are evaluated in one bosun_aggregate query and split back into a result per definition.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ActiveProfiles(profiles = "test")
+@SpringBootTest
+@ContextConfiguration(classes = {Application.class, MongoConfig.class})
+public class CombinedEvaluationTest extends BosunTests {
+
+  private static final String SECURITY_TEMPLATE_ID = "5cdd8667f6ea74a9bbaf5022";
+
+  private static final String CVE_TEMPLATE_ID = "5cdd8425f6ea74a9bbaf2fe6";
+
+  @Autowired
+  private BosunService bosunService;
+
+  @MockBean
+  private OpenPolicyAgentClient openPolicyAgentClient;
+
+  @Test
+  public void testCombinedResultsPerDefinition() throws IOException {
+    when(openPolicyAgentClient.validateAggregateData(any())).thenReturn(getAggregateDataResponse(
+        getDataResponseResult("1 High issues found"), getDataResponseResult(null)));
+
+    PolicyActivityEntity activity = bosunService.validatePolicy(getPolicyValidation("combined"));
+
+    Assert.assertEquals(Boolean.FALSE, activity.getValid());
+    Assert.assertEquals(2, activity.getResults().size());
+
+    Result security = getResult(activity, SECURITY_TEMPLATE_ID);
+    Assert.assertEquals(Boolean.FALSE, security.getValid());
+    Assert.assertEquals("1 High issues found", security.getViolations().get(0).getMessage());
+
+    Result cve = getResult(activity, CVE_TEMPLATE_ID);
+    Assert.assertEquals(Boolean.TRUE, cve.getValid());
+    Assert.assertTrue(cve.getViolations().isEmpty());
+
+    verify(openPolicyAgentClient, times(1)).validateAggregateData(any());
+    verify(openPolicyAgentClient, never()).validateData(any());
+  }
+
+  @Test
+  public void testMissingCombinedResultIsEvaluatedAlone() throws IOException {
+    when(openPolicyAgentClient.validateAggregateData(any())).thenReturn(
+        getAggregateDataResponse(getDataResponseResult("1 High issues found"), null));
+    when(openPolicyAgentClient.validateData(any()))
+        .thenReturn(getDataResponse(getDataResponseResult("CVE-2019-0001 is not safelisted")));
+
+    PolicyActivityEntity activity = bosunService.validatePolicy(getPolicyValidation("missing"));
+
+    Assert.assertEquals(2, activity.getResults().size());
+    Assert.assertEquals("1 High issues found",
+        getResult(activity, SECURITY_TEMPLATE_ID).getViolations().get(0).getMessage());
+    Assert.assertEquals("CVE-2019-0001 is not safelisted",
+        getResult(activity, CVE_TEMPLATE_ID).getViolations().get(0).getMessage());
+
+    verify(openPolicyAgentClient, times(1)).validateData(any());
+  }
+
+  @Test
+  public void testFailedCombinedEvaluationFallsBack() throws IOException {
+    when(openPolicyAgentClient.validateAggregateData(any()))
+        .thenThrow(new OPAClientException("undefined document bosun_aggregate"));
+    when(openPolicyAgentClient.validateData(any()))
+        .thenReturn(getDataResponse(getDataResponseResult(null)));
+
+    PolicyActivityEntity activity = bosunService.validatePolicy(getPolicyValidation("fallback"));
+
+    Assert.assertEquals(Boolean.TRUE, activity.getValid());
+    Assert.assertEquals(2, activity.getResults().size());
+    Assert.assertEquals(Boolean.TRUE, getResult(activity, SECURITY_TEMPLATE_ID).getValid());
+    Assert.assertEquals(Boolean.TRUE, getResult(activity, CVE_TEMPLATE_ID).getValid());
+
+    verify(openPolicyAgentClient, times(2)).validateData(any());
+  }
+
+  /*
+   * Each test validates its own data, so a result cached by another test is never returned.
+   */
+  private PolicyValidation getPolicyValidation(String name) throws IOException {
+    Policy policy = new Policy();
+    policy.setName("Combined " + name);
+    policy.setTeamId("5db85635110fc4000140a5ab");
+    policy.setDefinitions(Arrays.asList(getDefinition(SECURITY_TEMPLATE_ID, "High"),
+        getDefinition(CVE_TEMPLATE_ID, "CVE-2019-0001")));
+    String policyId = bosunService.addPolicy(policy).getId();
+
+    ObjectMapper mapper = new ObjectMapper();
+    PolicyValidationInput security = new PolicyValidationInput();
+    security.setTemplateId(SECURITY_TEMPLATE_ID);
+    security.setData(mapper.readTree("{\"issues\":[{\"severity\":\"High\",\"name\":\"" + name
+        + "\"}]}"));
+    PolicyValidationInput cve = new PolicyValidationInput();
+    cve.setTemplateId(CVE_TEMPLATE_ID);
+    cve.setData(mapper.readTree("{\"cves\":[\"CVE-2019-0001\"],\"name\":\"" + name + "\"}"));
+
+    PolicyValidation policyValidation = new PolicyValidation();
+    policyValidation.setPolicyId(policyId);
+    policyValidation.setReferenceId("combined-" + name);
+    policyValidation.setLabels(new HashMap<>());
+    policyValidation.setInputs(Arrays.asList(security, cve));
+    return policyValidation;
+  }
+
+  private static PolicyDefinition getDefinition(String templateId, String value) {
+    Map<String, String> rule = new HashMap<>();
+    rule.put("metric", value);
+    rule.put("operator", "EQUALS");
+    rule.put("value", "0");
+
+    PolicyDefinition definition = new PolicyDefinition();
+    definition.setPolicyTemplateId(templateId);
+    definition.setRules(Collections.singletonList(rule));
+    return definition;
+  }
+
+  private static Result getResult(PolicyActivityEntity activity, String templateId) {
+    return activity.getResults().stream()
+        .filter(result -> templateId.equals(result.getPolicyTemplateId())).findFirst().get();
+  }
+
+  private static AggregateDataResponse getAggregateDataResponse(DataResponseResult security,
+      DataResponseResult cve) {
+    Map<String, DataResponseResult> results = new HashMap<>();
+    results.put("0", security);
+    if (cve != null) {
+      results.put("1", cve);
+    }
+
+    AggregateDataResponseResult result = new AggregateDataResponseResult();
+    result.setResults(results);
+
+    AggregateDataResponse dataResponse = new AggregateDataResponse();
+    dataResponse.setResult(result);
+    return dataResponse;
+  }
+
+  private static DataResponse getDataResponse(DataResponseResult result) {
+    DataResponse dataResponse = new DataResponse();
+    dataResponse.setResult(result);
+    return dataResponse;
+  }
+
+  private static DataResponseResult getDataResponseResult(String message) {
+    DataResponseResult result = new DataResponseResult();
+    result.setValid(message == null);
+    if (message == null) {
+      result.setViolations(Collections.emptyList());
+    } else {
+      DataResponseResultViolation violation = new DataResponseResultViolation();
+      violation.setMetric("issues");
+      violation.setMessage(message);
+      violation.setValid(false);
+      result.setViolations(Arrays.asList(violation));
+    }
+    return result;
+  }
+}
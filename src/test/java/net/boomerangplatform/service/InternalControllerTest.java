@@ -0,0 +1,142 @@
+package net.boomerangplatform.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import javax.servlet.AsyncListener;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import net.boomerangplatform.controller.InternalController;
+
+public class InternalControllerTest {
+
+  private static final String BUNDLE_URL = "/internal/bundle.tar.gz";
+
+  private final BosunInternalService bosunInternalService = mock(BosunInternalService.class);
+
+  private final PolicyBundle bundle =
+      new PolicyBundle("rev-2", "bundle".getBytes(StandardCharsets.UTF_8));
+
+  private MockMvc mockMvc;
+
+  @Before
+  public void setUp() {
+    InternalController controller = new InternalController();
+    ReflectionTestUtils.setField(controller, "bosunInternalService", bosunInternalService);
+    ReflectionTestUtils.setField(controller, "maxWaitSeconds", 300L);
+    mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+    when(bosunInternalService.getBundle()).thenReturn(bundle);
+    when(bosunInternalService.getBundle(null)).thenReturn(bundle);
+  }
+
+  @Test
+  public void testBundleWithoutETag() throws Exception {
+    MvcResult result = mockMvc.perform(get(BUNDLE_URL)).andReturn();
+
+    mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+        .andExpect(header().string("ETag", "\"rev-2\""))
+        .andExpect(header().string("Content-Type", "application/vnd.openpolicyagent.bundles"))
+        .andExpect(content().string("bundle"));
+  }
+
+  @Test
+  public void testOlderETagGetsBundleFromThatRevision() throws Exception {
+    PolicyBundle delta = new PolicyBundle("rev-2", "delta".getBytes(StandardCharsets.UTF_8), true);
+    when(bosunInternalService.getBundle("rev-1")).thenReturn(delta);
+
+    MvcResult result = mockMvc
+        .perform(get(BUNDLE_URL).header("If-None-Match", "W/\"rev-1\"").header("Prefer", "wait=30"))
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+        .andExpect(header().string("ETag", "\"rev-2\"")).andExpect(content().string("delta"));
+    verify(bosunInternalService, never()).getNextBundle("rev-1");
+  }
+
+  @Test
+  public void testCurrentETagIsNotModified() throws Exception {
+    MvcResult result =
+        mockMvc.perform(get(BUNDLE_URL).header("If-None-Match", "\"rev-2\", \"rev-1\"")).andReturn();
+
+    mockMvc.perform(asyncDispatch(result)).andExpect(status().isNotModified())
+        .andExpect(header().string("ETag", "\"rev-2\""));
+    verify(bosunInternalService, never()).getNextBundle("rev-2");
+  }
+
+  @Test
+  public void testPreferWaitWithoutSecondsIsNotModified() throws Exception {
+    MvcResult result = mockMvc.perform(
+        get(BUNDLE_URL).header("If-None-Match", "\"rev-2\"").header("Prefer", "wait=soon"))
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(result)).andExpect(status().isNotModified());
+    verify(bosunInternalService, never()).getNextBundle("rev-2");
+  }
+
+  @Test
+  public void testPreferWaitParksPoll() throws Exception {
+    CompletableFuture<PolicyBundle> next = new CompletableFuture<>();
+    when(bosunInternalService.getNextBundle("rev-2")).thenReturn(next);
+
+    MvcResult result = mockMvc.perform(get(BUNDLE_URL).header("If-None-Match", "\"rev-2\"")
+        .header("Prefer", "respond-async, wait=5")).andExpect(request().asyncStarted())
+        .andReturn();
+    assertEquals(5000L, result.getRequest().getAsyncContext().getTimeout());
+
+    next.complete(new PolicyBundle("rev-3", "next".getBytes(StandardCharsets.UTF_8)));
+
+    mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+        .andExpect(header().string("ETag", "\"rev-3\"")).andExpect(content().string("next"));
+  }
+
+  @Test
+  public void testPreferWaitIsCapped() throws Exception {
+    when(bosunInternalService.getNextBundle("rev-2")).thenReturn(new CompletableFuture<>());
+
+    MvcResult result = mockMvc.perform(
+        get(BUNDLE_URL).header("If-None-Match", "\"rev-2\"").header("Prefer", "wait=3600"))
+        .andReturn();
+
+    assertEquals(300000L, result.getRequest().getAsyncContext().getTimeout());
+  }
+
+  @Test
+  public void testTimedOutPollIsNotModifiedAndCancelled() throws Exception {
+    CompletableFuture<PolicyBundle> next = new CompletableFuture<>();
+    when(bosunInternalService.getNextBundle("rev-2")).thenReturn(next);
+
+    MvcResult result = mockMvc.perform(
+        get(BUNDLE_URL).header("If-None-Match", "\"rev-2\"").header("Prefer", "wait=5"))
+        .andReturn();
+
+    MockAsyncContext asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+    for (AsyncListener listener : asyncContext.getListeners()) {
+      listener.onTimeout(null);
+    }
+
+    mockMvc.perform(asyncDispatch(result)).andExpect(status().isNotModified())
+        .andExpect(header().string("ETag", "\"rev-2\""));
+
+    for (AsyncListener listener : asyncContext.getListeners()) {
+      listener.onComplete(null);
+    }
+    assertTrue(next.isCancelled());
+  }
+}
@@ -0,0 +1,142 @@
+package net.boomerangplatform.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import net.boomerangplatform.Application;
+import net.boomerangplatform.MongoConfig;
+import net.boomerangplatform.entity.PolicyActivityEntity;
+import net.boomerangplatform.model.PolicyValidation;
+import net.boomerangplatform.opa.exception.OPAUnavailableException;
+import net.boomerangplatform.opa.model.DataResponse;
+import net.boomerangplatform.opa.model.DataResponseResult;
+import net.boomerangplatform.opa.model.DataResponseResultViolation;
+import net.boomerangplatform.opa.service.OpenPolicyAgentClient;
+import net.boomerangplatform.repository.PolicyActivityRepository;
+import net.boomerangplatform.repository.model.Artifact;
+import net.boomerangplatform.repository.model.ArtifactSummary;
+import net.boomerangplatform.repository.model.Issue;
+import net.boomerangplatform.repository.service.RepositoryService;
+
+/*
+ * Runs validations on the non-blocking path, where repository and OPA calls are composed from
+ * their async clients.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ActiveProfiles(profiles = "test")
+@SpringBootTest
+@ContextConfiguration(classes = {Application.class, MongoConfig.class})
+@TestPropertySource(properties = "bosun.validation.nonblocking.enabled=true")
+public class NonBlockingValidationTest extends BosunTests {
+
+  @Autowired
+  private BosunService bosunService;
+
+  @Autowired
+  private PolicyActivityRepository policyActivityRepository;
+
+  @MockBean
+  private RepositoryService repositoryService;
+
+  @MockBean
+  private OpenPolicyAgentClient openPolicyAgentClient;
+
+  @Test
+  public void testValidatePolicyAsync() {
+    when(repositoryService.getArtifactSummaryAsync(any(), any(), any()))
+        .thenReturn(CompletableFuture.supplyAsync(() -> getArtifactSummary("High")));
+    when(openPolicyAgentClient.validateDataAsync(any()))
+        .thenReturn(CompletableFuture.supplyAsync(this::getDataResponse));
+
+    PolicyActivityEntity savedEntity = bosunService
+        .validatePolicyAsync(getPolicyValidation("5dba1ce19e0f890001153730")).join();
+
+    Assert.assertNotNull(savedEntity.getId());
+    Assert.assertEquals(Boolean.FALSE, savedEntity.getValid());
+    Assert.assertEquals(1, savedEntity.getResults().size());
+    Assert.assertEquals("5cdd8667f6ea74a9bbaf5022",
+        savedEntity.getResults().get(0).getPolicyTemplateId());
+    Assert.assertEquals("1 High issues found",
+        savedEntity.getResults().get(0).getViolations().get(0).getMessage());
+
+    verify(repositoryService, never()).getArtifactSummary(any(), any(), any());
+    verify(openPolicyAgentClient, never()).validateData(any());
+  }
+
+  @Test
+  public void testRejectedEvaluationIsNotSaved() {
+    when(repositoryService.getArtifactSummaryAsync(any(), any(), any()))
+        .thenReturn(CompletableFuture.completedFuture(getArtifactSummary("Critical")));
+    when(openPolicyAgentClient.validateDataAsync(any())).thenReturn(CompletableFuture
+        .failedFuture(new OPAUnavailableException("OPA bulkhead opa is full")));
+    long activities = policyActivityRepository.count();
+
+    try {
+      bosunService.validatePolicyAsync(getPolicyValidation("5dba1ce19e0f890001153730")).join();
+      Assert.fail();
+    } catch (CompletionException e) {
+      Assert.assertTrue(e.getCause() instanceof OPAUnavailableException);
+    }
+
+    Assert.assertEquals(activities, policyActivityRepository.count());
+  }
+
+  private PolicyValidation getPolicyValidation(String policyId) {
+    Map<String, String> label = new HashMap<>();
+    label.put("artifact-version", "1.0.0");
+    label.put("artifact-path", "nonblocking");
+    label.put("artifact-name", "nonblocking");
+
+    PolicyValidation policyValidation = new PolicyValidation();
+    policyValidation.setPolicyId(policyId);
+    policyValidation.setReferenceId("nonblocking-" + policyId);
+    policyValidation.setLabels(label);
+    policyValidation.setInputs(new ArrayList<>());
+    return policyValidation;
+  }
+
+  private ArtifactSummary getArtifactSummary(String severity) {
+    Issue issue = new Issue();
+    issue.setSeverity(severity);
+    issue.setSummary("summary");
+
+    Artifact artifact = new Artifact();
+    artifact.setIssues(Arrays.asList(issue));
+
+    ArtifactSummary artifactSummary = new ArtifactSummary();
+    artifactSummary.setArtifacts(Arrays.asList(artifact));
+    return artifactSummary;
+  }
+
+  private DataResponse getDataResponse() {
+    DataResponseResultViolation violation = new DataResponseResultViolation();
+    violation.setMetric("High");
+    violation.setMessage("1 High issues found");
+    violation.setValid(false);
+
+    DataResponseResult result = new DataResponseResult();
+    result.setValid(false);
+    result.setViolations(Arrays.asList(violation));
+
+    DataResponse dataResponse = new DataResponse();
+    dataResponse.setResult(result);
+    return dataResponse;
+  }
+}
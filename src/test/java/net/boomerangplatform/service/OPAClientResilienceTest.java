@@ -0,0 +1,219 @@
+package net.boomerangplatform.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.boomerangplatform.opa.exception.OPAClientException;
+import net.boomerangplatform.opa.exception.OPAUnavailableException;
+import net.boomerangplatform.opa.model.DataRequest;
+import net.boomerangplatform.opa.model.DataRequestInput;
+import net.boomerangplatform.opa.model.DataRequestPolicy;
+import net.boomerangplatform.opa.model.DataResponse;
+import net.boomerangplatform.opa.service.OpaEndpointPool;
+import net.boomerangplatform.opa.service.OpaHedgingPolicy;
+import net.boomerangplatform.opa.service.OpaRequestCoalescer;
+import net.boomerangplatform.opa.service.OpenPolicyAgentClient;
+
+/*
+ * Runs the OPA client against local stub OPA instances that inject latency and errors.
+ */
+public class OPAClientResilienceTest {
+
+  private StubOpa opa;
+
+  private StubOpa secondOpa;
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Before
+  public void setUp() throws IOException {
+    opa = new StubOpa();
+    secondOpa = new StubOpa();
+  }
+
+  @After
+  public void tearDown() {
+    opa.stop();
+    secondOpa.stop();
+  }
+
+  @Test
+  public void testErrorsOpenCircuit() {
+    opa.setStatus(500);
+    OpenPolicyAgentClient client = getClient(Duration.ofSeconds(5), 10, false, opa);
+
+    for (int i = 0; i < 4; i++) {
+      try {
+        client.validateData(getDataRequest());
+        fail();
+      } catch (OPAUnavailableException e) {
+        fail(e.getMessage());
+      } catch (OPAClientException e) {
+        // recorded as a failure
+      }
+    }
+
+    assertRejected(client, "circuit breaker");
+    assertEquals(4, opa.getRequests());
+  }
+
+  @Test
+  public void testSlowCallsOpenCircuit() {
+    opa.setLatency(200);
+    OpenPolicyAgentClient client = getClient(Duration.ofMillis(50), 10, false, opa);
+
+    for (int i = 0; i < 4; i++) {
+      assertTrue(client.validateData(getDataRequest()).getResult().getValid());
+    }
+
+    assertRejected(client, "circuit breaker");
+    assertEquals(4, opa.getRequests());
+  }
+
+  @Test
+  public void testBulkheadRejectsConcurrentCalls() throws InterruptedException {
+    opa.setLatency(500);
+    OpenPolicyAgentClient client = getClient(Duration.ofSeconds(5), 1, false, opa);
+
+    CompletableFuture<?> first = CompletableFuture
+        .runAsync(() -> client.validateData(getDataRequest("5cd498f3f6ea74a9bb6ad0f4")));
+    assertTrue(opa.awaitRequest(5, TimeUnit.SECONDS));
+
+    assertRejected(client, "bulkhead");
+    first.join();
+    assertEquals(1, opa.getRequests());
+  }
+
+  @Test
+  public void testHedgeWinsOverSlowEndpoint() throws IOException {
+    // a cold client can take longer than the hedge delay to send the primary request
+    StubOpa warmUp = new StubOpa();
+    getClient(Duration.ofSeconds(5), 10, false, warmUp).validateDataAsync(getDataRequest()).join();
+    warmUp.stop();
+
+    AtomicInteger requests = new AtomicInteger();
+    LongSupplier firstRequestSlow = () -> requests.getAndIncrement() == 0 ? 3000 : 0;
+    opa.setLatency(firstRequestSlow);
+    secondOpa.setLatency(firstRequestSlow);
+    OpenPolicyAgentClient client = getClient(Duration.ofSeconds(5), 10, true, opa, secondOpa);
+
+    long start = System.nanoTime();
+    DataResponse response = client.validateDataAsync(getDataRequest()).join();
+
+    assertTrue(response.getResult().getValid());
+    assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2000);
+    assertEquals(1, opa.getRequests());
+    assertEquals(1, secondOpa.getRequests());
+    assertEquals(1.0, meterRegistry.counter("bosun.opa.hedges", "outcome", "fired").count(), 0);
+    assertEquals(1.0, meterRegistry.counter("bosun.opa.hedges", "outcome", "won").count(), 0);
+  }
+
+  @Test
+  public void testIdenticalRequestsShareOneCall() {
+    opa.setLatency(300);
+    OpenPolicyAgentClient client = getClient(Duration.ofSeconds(5), 10, false, opa);
+
+    List<CompletableFuture<DataResponse>> responses = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      responses.add(client.validateDataAsync(getDataRequest()));
+    }
+    responses.add(CompletableFuture.supplyAsync(() -> client.validateData(getDataRequest())));
+
+    for (CompletableFuture<DataResponse> response : responses) {
+      assertTrue(response.join().getResult().getValid());
+    }
+    assertEquals(1, opa.getRequests());
+
+    client.validateData(getDataRequest());
+    assertEquals(2, opa.getRequests());
+  }
+
+  private static void assertRejected(OpenPolicyAgentClient client, String reason) {
+    try {
+      client.validateData(getDataRequest());
+      fail();
+    } catch (OPAUnavailableException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains(reason));
+    }
+  }
+
+  private OpenPolicyAgentClient getClient(Duration slowCallDuration, int maxConcurrentCalls,
+      boolean hedging, StubOpa... endpoints) {
+    SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+    requestFactory.setConnectTimeout(1000);
+    requestFactory.setReadTimeout(5000);
+
+    CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+        .failureRateThreshold(50).slowCallRateThreshold(50)
+        .slowCallDurationThreshold(slowCallDuration).slidingWindowSize(4).minimumNumberOfCalls(4)
+        .waitDurationInOpenState(Duration.ofMinutes(1)).build();
+    BulkheadConfig bulkheadConfig = BulkheadConfig.custom()
+        .maxConcurrentCalls(maxConcurrentCalls).maxWaitDuration(Duration.ZERO).build();
+
+    OpaHedgingPolicy hedgingPolicy = new OpaHedgingPolicy();
+    ReflectionTestUtils.setField(hedgingPolicy, "meterRegistry", meterRegistry);
+    ReflectionTestUtils.setField(hedgingPolicy, "enabled", hedging);
+    ReflectionTestUtils.setField(hedgingPolicy, "percentile", 0.95);
+    ReflectionTestUtils.setField(hedgingPolicy, "minDelay", 50L);
+    ReflectionTestUtils.setField(hedgingPolicy, "maxDelay", 100L);
+    hedgingPolicy.init();
+
+    OpaRequestCoalescer requestCoalescer = new OpaRequestCoalescer();
+    ReflectionTestUtils.setField(requestCoalescer, "meterRegistry", meterRegistry);
+    ReflectionTestUtils.setField(requestCoalescer, "enabled", true);
+    requestCoalescer.init();
+
+    OpenPolicyAgentClient client = new OpenPolicyAgentClient();
+    client.opaRestDataUrl = "/data";
+    ReflectionTestUtils.setField(client, "opaEndpointPool", new OpaEndpointPool(
+        Arrays.stream(endpoints).map(StubOpa::getBaseUrl).collect(Collectors.toList())));
+    ReflectionTestUtils.setField(client, "restTemplate", new RestTemplate(requestFactory));
+    ReflectionTestUtils.setField(client, "opaWebClient", WebClient.create());
+    ReflectionTestUtils.setField(client, "opaCircuitBreaker",
+        CircuitBreaker.of("opa", circuitBreakerConfig));
+    ReflectionTestUtils.setField(client, "opaBulkhead", Bulkhead.of("opa", bulkheadConfig));
+    ReflectionTestUtils.setField(client, "opaHedgingPolicy", hedgingPolicy);
+    ReflectionTestUtils.setField(client, "opaRequestCoalescer", requestCoalescer);
+    return client;
+  }
+
+  private static DataRequest getDataRequest() {
+    return getDataRequest("5cd498f3f6ea74a9bb6ad0f3");
+  }
+
+  private static DataRequest getDataRequest(String policyTemplateId) {
+    DataRequestPolicy policy = new DataRequestPolicy();
+    policy.setId(policyTemplateId);
+    policy.setKey("static_code_analysis");
+
+    DataRequestInput input = new DataRequestInput();
+    input.setPolicy(policy);
+
+    DataRequest dataRequest = new DataRequest();
+    dataRequest.setInput(input);
+    return dataRequest;
+  }
+}
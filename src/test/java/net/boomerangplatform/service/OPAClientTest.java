@@ -15,6 +15,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
@@ -42,6 +43,7 @@ public class OPAClientTest {
   private OpenPolicyAgentClient opaClient;
 
   @Autowired
+  @Qualifier("opaRestTemplate")
   protected RestTemplate restTemplate;
 
   protected MockRestServiceServer server;
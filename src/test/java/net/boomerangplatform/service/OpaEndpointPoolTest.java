@@ -0,0 +1,44 @@
+package net.boomerangplatform.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import java.util.Arrays;
+import org.junit.Test;
+import net.boomerangplatform.opa.service.OpaEndpoint;
+import net.boomerangplatform.opa.service.OpaEndpointPool;
+
+public class OpaEndpointPoolTest {
+
+  @Test
+  public void testSkipsUnhealthyEndpoints() {
+    OpaEndpointPool pool =
+        new OpaEndpointPool(Arrays.asList("http://opa-0:8181/v1", "http://opa-1:8181/v1"));
+    pool.getEndpoints().get(0).setHealthy(false);
+
+    for (int i = 0; i < 20; i++) {
+      assertEquals("http://opa-1:8181/v1", pool.choose().getBaseUrl());
+    }
+  }
+
+  @Test
+  public void testPrefersFewerOutstandingRequests() {
+    OpaEndpointPool pool =
+        new OpaEndpointPool(Arrays.asList("http://opa-0:8181/v1", "http://opa-1:8181/v1"));
+    OpaEndpoint busy = pool.getEndpoints().get(0);
+    busy.acquire();
+
+    for (int i = 0; i < 20; i++) {
+      assertEquals("http://opa-1:8181/v1", pool.choose().getBaseUrl());
+    }
+  }
+
+  @Test
+  public void testUsesAllEndpointsWhenNoneHealthy() {
+    OpaEndpointPool pool = new OpaEndpointPool(
+        Arrays.asList("http://opa-0:8181/v1", " http://opa-0:8181/v1", "http://opa-1:8181/v1"));
+    pool.getEndpoints().forEach(endpoint -> endpoint.setHealthy(false));
+
+    assertEquals(2, pool.getEndpoints().size());
+    assertFalse(pool.choose().isHealthy());
+  }
+}
@@ -0,0 +1,197 @@
+package net.boomerangplatform.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.boomerangplatform.entity.PolicyEntity;
+import net.boomerangplatform.model.PolicyDefinition;
+import net.boomerangplatform.model.Status;
+import net.boomerangplatform.repository.PolicyRepository;
+
+public class PolicyDataRegistryTest {
+
+  private final PolicyRepository policyRepository = mock(PolicyRepository.class);
+
+  private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+
+  private final TaskScheduler taskScheduler = mock(TaskScheduler.class);
+
+  private final ApplicationEventPublisher applicationEventPublisher =
+      mock(ApplicationEventPublisher.class);
+
+  private final PolicyDataRegistry registry = new PolicyDataRegistry();
+
+  private final List<PolicyEntity> policies = new ArrayList<>();
+
+  @Before
+  public void setUp() {
+    ReflectionTestUtils.setField(registry, "policyRepository", policyRepository);
+    ReflectionTestUtils.setField(registry, "mongoTemplate", mongoTemplate);
+    ReflectionTestUtils.setField(registry, "taskScheduler", taskScheduler);
+    ReflectionTestUtils.setField(registry, "applicationEventPublisher",
+        applicationEventPublisher);
+    ReflectionTestUtils.setField(registry, "refreshDelay", 1000L);
+    when(policyRepository.findAll()).thenAnswer(invocation -> new ArrayList<>(policies));
+    when(mongoTemplate.find(any(Query.class), eq(PolicyEntity.class)))
+        .thenAnswer(invocation -> policies.stream()
+            .map(policy -> getPolicy(policy.getId(), policy.getRevision()))
+            .collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testDataDocument() throws IOException {
+    policies.add(getPolicy("5db85e35110fc4000140a5ad", 3L,
+        getDefinition("5cd49777f6ea74a9bb6ac629", "issues-total"),
+        getDefinition("5ce312a72b9465b3a44aaa57", "")));
+    policies.add(getPolicy("5dba1ce19e0f890001153730", null,
+        getDefinition("5cdd8667f6ea74a9bbaf5022", "High")));
+
+    JsonNode data = new ObjectMapper().readTree(registry.refresh().getData());
+    JsonNode policy = data.get("bosun_policies").get("5db85e35110fc4000140a5ad");
+
+    assertEquals(3L, policy.get("revision").asLong());
+    assertEquals(1, policy.get("definitions").size());
+    assertEquals("issues-total", policy.get("definitions").get("5cd49777f6ea74a9bb6ac629").get(0)
+        .get("metric").asText());
+    assertEquals(0L,
+        data.get("bosun_policies").get("5dba1ce19e0f890001153730").get("revision").asLong());
+  }
+
+  @Test
+  public void testContainsPolicyRevision() {
+    PolicyEntity policy =
+        getPolicy("5db85e35110fc4000140a5ad", 3L, getDefinition("5cd49777f6ea74a9bb6ac629", "a"));
+    policies.add(policy);
+    registry.refresh();
+
+    assertTrue(registry.contains(policy));
+    assertFalse(registry.contains(
+        getPolicy("5db85e35110fc4000140a5ad", 4L, getDefinition("5cd49777f6ea74a9bb6ac629", "a"))));
+    assertFalse(registry.contains(null));
+  }
+
+  @Test
+  public void testInactivePolicyIsLeftOut() {
+    PolicyEntity policy =
+        getPolicy("5db85e35110fc4000140a5ad", 3L, getDefinition("5cd49777f6ea74a9bb6ac629", "a"));
+    policy.setStatus(Status.inactive);
+    policies.add(policy);
+
+    assertTrue(registry.refresh().getPolicies().isEmpty());
+    assertFalse(registry.contains(policy));
+  }
+
+  @Test
+  public void testDuplicateTemplateDefinitionsStayInline() {
+    PolicyEntity policy = getPolicy("5db85e35110fc4000140a5ad", 3L,
+        getDefinition("5cd49777f6ea74a9bb6ac629", "issues-total"),
+        getDefinition("5cd49777f6ea74a9bb6ac629", "issues-major"));
+    policies.add(policy);
+
+    assertTrue(registry.refresh().getPolicies().isEmpty());
+    assertFalse(registry.contains(policy));
+  }
+
+  @Test
+  public void testChangeEventOnlyWhenDataChanges() {
+    policies.add(
+        getPolicy("5db85e35110fc4000140a5ad", 3L, getDefinition("5cd49777f6ea74a9bb6ac629", "a")));
+
+    registry.refresh();
+    registry.refresh();
+    verify(applicationEventPublisher, times(1)).publishEvent(any(PolicyDataChangedEvent.class));
+
+    policies.set(0,
+        getPolicy("5db85e35110fc4000140a5ad", 4L, getDefinition("5cd49777f6ea74a9bb6ac629", "b")));
+    registry.refresh();
+    verify(applicationEventPublisher, times(2)).publishEvent(any(PolicyDataChangedEvent.class));
+  }
+
+  @Test
+  public void testPollOnlyLoadsChangedPolicies() {
+    policies.add(
+        getPolicy("5db85e35110fc4000140a5ad", 3L, getDefinition("5cd49777f6ea74a9bb6ac629", "a")));
+
+    registry.poll();
+    registry.poll();
+    verify(policyRepository, times(1)).findAll();
+
+    policies.set(0,
+        getPolicy("5db85e35110fc4000140a5ad", 4L, getDefinition("5cd49777f6ea74a9bb6ac629", "b")));
+    registry.poll();
+    verify(policyRepository, times(2)).findAll();
+  }
+
+  @Test
+  public void testPollIgnoresUnchangedDuplicateDefinitions() {
+    policies.add(getPolicy("5db85e35110fc4000140a5ad", 3L,
+        getDefinition("5cd49777f6ea74a9bb6ac629", "issues-total"),
+        getDefinition("5cd49777f6ea74a9bb6ac629", "issues-major")));
+
+    registry.poll();
+    registry.poll();
+    verify(policyRepository, times(1)).findAll();
+  }
+
+  @Test
+  public void testRequestedRefreshesAreCoalesced() {
+    policies.add(
+        getPolicy("5db85e35110fc4000140a5ad", 3L, getDefinition("5cd49777f6ea74a9bb6ac629", "a")));
+
+    registry.requestRefresh();
+    registry.requestRefresh();
+
+    ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+    verify(taskScheduler, times(1)).schedule(task.capture(), any(Date.class));
+    verify(policyRepository, never()).findAll();
+
+    task.getValue().run();
+    verify(policyRepository, times(1)).findAll();
+    assertTrue(registry.contains(policies.get(0)));
+
+    registry.requestRefresh();
+    verify(taskScheduler, times(2)).schedule(any(Runnable.class), any(Date.class));
+  }
+
+  private static PolicyEntity getPolicy(String id, Long revision,
+      PolicyDefinition... definitions) {
+    PolicyEntity policy = new PolicyEntity();
+    policy.setId(id);
+    policy.setStatus(Status.active);
+    policy.setRevision(revision);
+    policy.setDefinitions(Arrays.asList(definitions));
+    return policy;
+  }
+
+  private static PolicyDefinition getDefinition(String templateId, String metric) {
+    PolicyDefinition definition = new PolicyDefinition();
+    definition.setPolicyTemplateId(templateId);
+    definition.setRules(metric.isEmpty() ? Collections.emptyList()
+        : Collections.singletonList(Collections.singletonMap("metric", metric)));
+    return definition;
+  }
+}
@@ -0,0 +1,83 @@
+package net.boomerangplatform.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import com.sun.net.httpserver.HttpServer;
+
+/*
+ * Local stand-in for an OPA instance whose response latency and status can be changed by tests.
+ */
+public class StubOpa {
+
+  private static final String VALID_RESPONSE = "{\"result\":{\"valid\":true,\"violations\":[]}}";
+
+  private final HttpServer server;
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  private final AtomicInteger requests = new AtomicInteger();
+
+  private final CountDownLatch received = new CountDownLatch(1);
+
+  private volatile int status = 200;
+
+  private volatile LongSupplier latency = () -> 0;
+
+  public StubOpa() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/v1/data", exchange -> {
+      requests.incrementAndGet();
+      received.countDown();
+      try {
+        Thread.sleep(latency.getAsLong());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      byte[] body = VALID_RESPONSE.getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().add("Content-Type", "application/json");
+      exchange.sendResponseHeaders(status, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    server.setExecutor(executor);
+    server.start();
+  }
+
+  public String getBaseUrl() {
+    return "http://localhost:" + server.getAddress().getPort() + "/v1";
+  }
+
+  public int getRequests() {
+    return requests.get();
+  }
+
+  public boolean awaitRequest(long timeout, TimeUnit unit) throws InterruptedException {
+    return received.await(timeout, unit);
+  }
+
+  public void setStatus(int status) {
+    this.status = status;
+  }
+
+  public void setLatency(long latency) {
+    this.latency = () -> latency;
+  }
+
+  public void setLatency(LongSupplier latency) {
+    this.latency = latency;
+  }
+
+  public void stop() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,156 @@
+package net.boomerangplatform.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.boomerangplatform.opa.model.DataResponseResult;
+import net.boomerangplatform.opa.service.ThresholdEvaluator;
+import net.boomerangplatform.repository.model.Issues;
+import net.boomerangplatform.repository.model.Measures;
+import net.boomerangplatform.repository.model.SonarQubeReport;
+
+/*
+ * Expected results are those returned by OPA for the static_code_analysis and unit_tests rego in
+ * db/bosun_templates when given the same input.
+ */
+public class ThresholdEvaluatorTest {
+
+  private final ThresholdEvaluator evaluator = new ThresholdEvaluator();
+
+  @Test
+  public void testStaticCodeAnalysisViolation() {
+    DataResponseResult result = evaluator.evaluate("static_code_analysis",
+        Arrays.asList(getRule("issues-total", "less than", "10")), getSonarQubeReport());
+
+    Assert.assertEquals(Boolean.FALSE, result.getValid());
+    Assert.assertEquals(1, result.getViolations().size());
+    Assert.assertEquals("issues-total", result.getViolations().get(0).getMetric());
+    Assert.assertEquals("19 less than 10 was not satisfied",
+        result.getViolations().get(0).getMessage());
+    Assert.assertEquals(Boolean.FALSE, result.getViolations().get(0).getValid());
+  }
+
+  @Test
+  public void testStaticCodeAnalysisSatisfied() {
+    DataResponseResult result = evaluator.evaluate("static_code_analysis",
+        Arrays.asList(getRule("issues-blocker", "equal", "1"),
+            getRule("ncloc", "greater than or equal", "1"),
+            getRule("issues-major", "not equal", "3")),
+        getSonarQubeReport());
+
+    Assert.assertEquals(Boolean.TRUE, result.getValid());
+    Assert.assertTrue(result.getViolations().isEmpty());
+  }
+
+  @Test
+  public void testStaticCodeAnalysisFixturePolicies() {
+    DataResponseResult total = evaluator.evaluate("static_code_analysis",
+        Arrays.asList(getRule("issues-total", "less than or equal", "1")), getSonarQubeReport());
+
+    Assert.assertEquals(Boolean.FALSE, total.getValid());
+    Assert.assertEquals("19 less than or equal 1 was not satisfied",
+        total.getViolations().get(0).getMessage());
+
+    DataResponseResult major = evaluator.evaluate("static_code_analysis",
+        Arrays.asList(getRule("issues-major", "less than or equal", "0")), getSonarQubeReport());
+
+    Assert.assertEquals(Boolean.TRUE, major.getValid());
+    Assert.assertTrue(major.getViolations().isEmpty());
+  }
+
+  @Test
+  public void testViolationsAreOrderedByMessage() {
+    DataResponseResult result = evaluator.evaluate("static_code_analysis",
+        Arrays.asList(getRule("issues-minor", "less than or equal", "5"),
+            getRule("complexity", "greater than", "10"),
+            getRule("issues-minor", "less than or equal", "5")),
+        getSonarQubeReport());
+
+    Assert.assertEquals(Boolean.FALSE, result.getValid());
+    Assert.assertEquals(2, result.getViolations().size());
+    Assert.assertEquals("15 less than or equal 5 was not satisfied",
+        result.getViolations().get(0).getMessage());
+    Assert.assertEquals("9 greater than 10 was not satisfied",
+        result.getViolations().get(1).getMessage());
+  }
+
+  @Test
+  public void testUnitTestsCoverage() {
+    DataResponseResult result = evaluator.evaluate("unit_tests",
+        Arrays.asList(getRule("coverage", "greater than or equal", "90"),
+            getRule("tests", "greater than", "0")),
+        getSonarQubeReport());
+
+    Assert.assertEquals(Boolean.FALSE, result.getValid());
+    Assert.assertEquals(1, result.getViolations().size());
+    Assert.assertEquals("coverage", result.getViolations().get(0).getMetric());
+    Assert.assertEquals("85 greater than or equal 90 was not satisfied",
+        result.getViolations().get(0).getMessage());
+  }
+
+  @Test
+  public void testUnitTestsIgnoresIssues() {
+    DataResponseResult result = evaluator.evaluate("unit_tests",
+        Arrays.asList(getRule("issues-total", "less than", "10")), getSonarQubeReport());
+
+    Assert.assertEquals(Boolean.TRUE, result.getValid());
+    Assert.assertTrue(result.getViolations().isEmpty());
+  }
+
+  @Test
+  public void testUnknownOperatorIsViolation() {
+    DataResponseResult result = evaluator.evaluate("static_code_analysis",
+        Arrays.asList(getRule("complexity", "Greater Than", "1000")), getSonarQubeReport());
+
+    Assert.assertEquals(Boolean.FALSE, result.getValid());
+    Assert.assertEquals("9 Greater Than 1000 was not satisfied",
+        result.getViolations().get(0).getMessage());
+  }
+
+  @Test
+  public void testFallsBackToOpa() {
+    Assert.assertNull(evaluator.evaluate("static_code_analysis",
+        Arrays.asList(getRule("complexity", "greater than", "high")), getSonarQubeReport()));
+    Assert.assertNull(evaluator.evaluate("package_safelist",
+        Arrays.asList(getRule("complexity", "greater than", "1")), getSonarQubeReport()));
+    Assert.assertNull(evaluator.evaluate("static_code_analysis",
+        Arrays.asList(getRule("complexity", "greater than", "1")), null));
+  }
+
+  private static Map<String, String> getRule(String metric, String operator, String value) {
+    Map<String, String> rule = new HashMap<>();
+    rule.put("metric", metric);
+    rule.put("operator", operator);
+    rule.put("value", value);
+    return rule;
+  }
+
+  private static JsonNode getSonarQubeReport() {
+    SonarQubeReport report = new SonarQubeReport();
+
+    Issues issues = new Issues();
+    issues.setBlocker(1);
+    issues.setCritical(2);
+    issues.setFilesAnalyzed(99);
+    issues.setInfo(1);
+    issues.setMajor(0);
+    issues.setMinor(15);
+    issues.setTotal(19);
+
+    Measures measures = new Measures();
+    measures.setComplexity(9);
+    measures.setNcloc(1);
+    measures.setViolations(3);
+    measures.setTests(42);
+    measures.setCoverage(85.0);
+
+    report.setIssues(issues);
+    report.setMeasures(measures);
+
+    return new ObjectMapper().convertValue(report, JsonNode.class);
+  }
+}
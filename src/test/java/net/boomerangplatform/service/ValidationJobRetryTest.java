@@ -0,0 +1,137 @@
+package net.boomerangplatform.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import org.bson.Document;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.mongodb.client.result.UpdateResult;
+import net.boomerangplatform.entity.PolicyValidationJobEntity;
+import net.boomerangplatform.exception.BosunException;
+import net.boomerangplatform.model.JobStatus;
+import net.boomerangplatform.opa.exception.OPAUnavailableException;
+
+public class ValidationJobRetryTest {
+
+  private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+
+  private final BosunService bosunService = mock(BosunService.class);
+
+  private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+  private final PolicyValidationJobServiceImpl jobService = new PolicyValidationJobServiceImpl();
+
+  @Before
+  public void setUp() {
+    executor.setCorePoolSize(1);
+    executor.setMaxPoolSize(1);
+    executor.initialize();
+
+    ReflectionTestUtils.setField(jobService, "workerEnabled", true);
+    ReflectionTestUtils.setField(jobService, "leaseSeconds", 300L);
+    ReflectionTestUtils.setField(jobService, "maxAttempts", 3);
+    ReflectionTestUtils.setField(jobService, "retryBackoffMs", 5000L);
+    ReflectionTestUtils.setField(jobService, "mongoTemplate", mongoTemplate);
+    ReflectionTestUtils.setField(jobService, "bosunService", bosunService);
+    ReflectionTestUtils.setField(jobService, "validationJobExecutor", executor);
+
+    when(mongoTemplate.updateFirst(any(Query.class), any(Update.class),
+        eq(PolicyValidationJobEntity.class))).thenReturn(UpdateResult.acknowledged(1, 1L, null));
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdown();
+  }
+
+  @Test
+  public void testUnavailableOpaRequeuesJob() throws InterruptedException {
+    when(bosunService.validatePolicy(any()))
+        .thenThrow(new CompletionException(new OPAUnavailableException("open")));
+
+    Document update = runJob(2);
+
+    assertEquals(JobStatus.queued, getSet(update).get("status"));
+    assertNotNull(getSet(update).get("retryDate"));
+    assertTrue(((Document) update.get("$unset")).containsKey("owner"));
+    assertFalse(getSet(update).containsKey("error"));
+  }
+
+  @Test
+  public void testUnavailableOpaOnLastAttemptFailsJob() throws InterruptedException {
+    when(bosunService.validatePolicy(any())).thenThrow(new OPAUnavailableException("open"));
+
+    Document update = runJob(3);
+
+    assertEquals(JobStatus.failed, getSet(update).get("status"));
+    assertEquals("open", getSet(update).get("error"));
+  }
+
+  @Test
+  public void testValidationErrorFailsJob() throws InterruptedException {
+    when(bosunService.validatePolicy(any()))
+        .thenThrow(new BosunException("No Policy found with ID of 000000000000000000000000"));
+
+    Document update = runJob(1);
+
+    assertEquals(JobStatus.failed, getSet(update).get("status"));
+    assertEquals("No Policy found with ID of 000000000000000000000000",
+        getSet(update).get("error"));
+  }
+
+  @Test
+  public void testResultIsWrittenOnlyUnderTheClaim() throws InterruptedException {
+    when(bosunService.validatePolicy(any())).thenThrow(new BosunException("error"));
+
+    runJob(2);
+
+    ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    verify(mongoTemplate).updateFirst(query.capture(), any(Update.class),
+        eq(PolicyValidationJobEntity.class));
+    assertEquals("5dba1ce19e0f890001153730", query.getValue().getQueryObject().get("_id"));
+    assertEquals(2, query.getValue().getQueryObject().get("attempts"));
+    assertNotNull(query.getValue().getQueryObject().get("owner"));
+  }
+
+  private Document runJob(int attempts) throws InterruptedException {
+    PolicyValidationJobEntity job = new PolicyValidationJobEntity();
+    job.setId("5dba1ce19e0f890001153730");
+    job.setStatus(JobStatus.running);
+    job.setAttempts(attempts);
+    job.setValidation("{\"policyId\":\"5dba1ce19e0f890001153730\"}");
+
+    when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+        any(FindAndModifyOptions.class), eq(PolicyValidationJobEntity.class))).thenReturn(job)
+            .thenReturn(null);
+
+    jobService.processJobs();
+    executor.getThreadPoolExecutor().shutdown();
+    executor.getThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS);
+
+    ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+    verify(mongoTemplate).updateFirst(any(Query.class), update.capture(),
+        eq(PolicyValidationJobEntity.class));
+    return update.getValue().getUpdateObject();
+  }
+
+  private static Document getSet(Document update) {
+    return (Document) update.get("$set");
+  }
+}
@@ -0,0 +1,113 @@
+package net.boomerangplatform.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.boomerangplatform.Application;
+import net.boomerangplatform.MongoConfig;
+import net.boomerangplatform.entity.PolicyActivityEntity;
+import net.boomerangplatform.exception.BosunException;
+import net.boomerangplatform.model.JobStatus;
+import net.boomerangplatform.model.PolicyValidation;
+import net.boomerangplatform.model.PolicyValidationInput;
+import net.boomerangplatform.model.PolicyValidationJob;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ActiveProfiles(profiles = "test")
+@SpringBootTest
+@ContextConfiguration(classes = {Application.class, MongoConfig.class})
+public class ValidationJobServiceTest extends BosunTests {
+
+  @Autowired
+  private PolicyValidationJobService jobService;
+
+  @Test
+  public void testSubmitAndCompleteJob() throws InterruptedException {
+    PolicyValidationJob job = jobService.submitJob(getPolicyValidation("5dba1ce19e0f890001153730"));
+
+    Assert.assertNotNull(job.getId());
+    Assert.assertEquals(JobStatus.queued, job.getStatus());
+    Assert.assertEquals("5dba1ce19e0f890001153730", job.getPolicyId());
+
+    PolicyValidationJob finished = waitForJob(job.getId());
+
+    Assert.assertEquals(JobStatus.completed, finished.getStatus());
+    Assert.assertEquals(Integer.valueOf(1), finished.getAttempts());
+
+    PolicyActivityEntity activity = jobService.getJobActivity(job.getId());
+    Assert.assertEquals(finished.getActivityId(), activity.getId());
+    Assert.assertEquals("5dba1ce19e0f890001153730", activity.getPolicyId());
+    Assert.assertEquals(Boolean.FALSE, activity.getValid());
+  }
+
+  @Test
+  public void testSubmitAndClaimJobWithInputData() throws Exception {
+    PolicyValidationInput input = new PolicyValidationInput();
+    input.setTemplateId("5cdd8667f6ea74a9bbaf5022");
+    input.setData(new ObjectMapper()
+        .readTree("{\"issues\":[{\"severity\":\"Low\",\"component\":{\"name\":\"a\"}}]}"));
+
+    PolicyValidation policyValidation = getPolicyValidation("5dba1ce19e0f890001153730");
+    policyValidation.setInputs(Collections.singletonList(input));
+
+    PolicyValidationJob job = jobService.submitJob(policyValidation);
+    Assert.assertEquals("job-5dba1ce19e0f890001153730", job.getReferenceId());
+
+    PolicyValidationJob finished = waitForJob(job.getId());
+
+    Assert.assertEquals(JobStatus.completed, finished.getStatus());
+    Assert.assertEquals(Integer.valueOf(1), finished.getAttempts());
+    Assert.assertEquals("5dba1ce19e0f890001153730",
+        jobService.getJobActivity(job.getId()).getPolicyId());
+  }
+
+  @Test
+  public void testFailedJob() throws InterruptedException {
+    PolicyValidationJob job = jobService.submitJob(getPolicyValidation("000000000000000000000000"));
+
+    PolicyValidationJob finished = waitForJob(job.getId());
+
+    Assert.assertEquals(JobStatus.failed, finished.getStatus());
+    Assert.assertEquals("No Policy found with ID of 000000000000000000000000",
+        finished.getError());
+  }
+
+  @Test(expected = BosunException.class)
+  public void testGetUnknownJob() {
+    jobService.getJob("000000000000000000000000");
+  }
+
+  private PolicyValidationJob waitForJob(String jobId) throws InterruptedException {
+    PolicyValidationJob job = jobService.getJob(jobId);
+    for (int i = 0; i < 100 && (JobStatus.queued.equals(job.getStatus())
+        || JobStatus.running.equals(job.getStatus())); i++) {
+      Thread.sleep(100);
+      job = jobService.getJob(jobId);
+    }
+    return job;
+  }
+
+  private PolicyValidation getPolicyValidation(String policyId) {
+    Map<String, String> label = new HashMap<>();
+    label.put("artifact-version", "");
+    label.put("artifact-path", "");
+    label.put("artifact-name", "");
+
+    PolicyValidation policyValidation = new PolicyValidation();
+    policyValidation.setPolicyId(policyId);
+    policyValidation.setReferenceId("job-" + policyId);
+    policyValidation.setLabels(label);
+    policyValidation.setInputs(new ArrayList<>());
+    return policyValidation;
+  }
+}
@@ -0,0 +1,60 @@
+package net.boomerangplatform.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.boomerangplatform.entity.PolicyEntity;
+import net.boomerangplatform.model.PolicyDefinition;
+import net.boomerangplatform.model.Result;
+
+public class ValidationResultCacheTest {
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  private final ValidationResultCache cache = new ValidationResultCache();
+
+  private final PolicyEntity policy = new PolicyEntity();
+
+  @Before
+  public void setUp() {
+    ReflectionTestUtils.setField(cache, "policyTemplateRegistry",
+        mock(PolicyTemplateRegistry.class));
+    ReflectionTestUtils.setField(cache, "enabled", true);
+    policy.setId("5db85e35110fc4000140a5ad");
+  }
+
+  @Test
+  public void testKeyFollowsRepositoryData() throws IOException {
+    String key = cache.getKey(policy, getEvaluations("{\"issues\":{\"total\":19}}"));
+
+    assertEquals(key, cache.getKey(policy, getEvaluations("{\"issues\":{\"total\":19}}")));
+    assertNotEquals(key, cache.getKey(policy, getEvaluations("{\"issues\":{\"total\":20}}")));
+  }
+
+  @Test
+  public void testNoKeyForFailedEvaluation() throws IOException {
+    List<DefinitionEvaluation> evaluations = getEvaluations("{}");
+    evaluations.get(0).setFailedResult(new Result());
+
+    assertNull(cache.getKey(policy, evaluations));
+  }
+
+  private List<DefinitionEvaluation> getEvaluations(String data) throws IOException {
+    PolicyDefinition definition = new PolicyDefinition();
+    definition.setPolicyTemplateId("5cd49777f6ea74a9bb6ac629");
+    definition.setRules(Collections.emptyList());
+
+    DefinitionEvaluation evaluation = new DefinitionEvaluation(definition, null);
+    evaluation.setData(mapper.readTree(data));
+    return Arrays.asList(evaluation);
+  }
+}
@@ -0,0 +1,198 @@
+package net.boomerangplatform.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.boomerangplatform.controller.BosunController;
+import net.boomerangplatform.entity.PolicyActivityEntity;
+import net.boomerangplatform.entity.PolicyEntity;
+import net.boomerangplatform.model.Status;
+import net.boomerangplatform.repository.PolicyActivityRepository;
+import net.boomerangplatform.repository.PolicyRepository;
+
+/*
+ * Drives the paged and streamed violations endpoints through the service, with the repositories
+ * stubbed.
+ */
+public class ViolationsControllerTest {
+
+  private static final String TEAM_ID = "5db85635110fc4000140a5ab";
+
+  private static final String POLICY_ID = "5db9a8c7b01c530001b838d1";
+
+  private final PolicyRepository policyRepository = mock(PolicyRepository.class);
+
+  private final PolicyActivityRepository policyActivityRepository =
+      mock(PolicyActivityRepository.class);
+
+  private final Date createdDate = new Date(1573068000000L);
+
+  private MockMvc mockMvc;
+
+  @Before
+  public void setUp() {
+    BosunServiceImpl bosunService = new BosunServiceImpl();
+    ReflectionTestUtils.setField(bosunService, "policyRepository", policyRepository);
+    ReflectionTestUtils.setField(bosunService, "policyActivityRepository",
+        policyActivityRepository);
+    ReflectionTestUtils.setField(bosunService, "policyTemplateRegistry",
+        mock(PolicyTemplateRegistry.class));
+    ReflectionTestUtils.setField(bosunService, "latestActivityEnabled", true);
+    ReflectionTestUtils.setField(bosunService, "violationsMaxPageSize", 500);
+
+    BosunController controller = new BosunController();
+    ReflectionTestUtils.setField(controller, "bosunService", bosunService);
+    ReflectionTestUtils.setField(controller, "objectMapper", new ObjectMapper());
+    mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+    PolicyEntity policy = new PolicyEntity();
+    policy.setId(POLICY_ID);
+    policy.setName("Tyson 4");
+    policy.setStatus(Status.active);
+    when(policyRepository.findByTeamId(TEAM_ID)).thenReturn(Collections.singletonList(policy));
+    when(policyActivityRepository.isLatestActivitiesRebuilt()).thenReturn(true);
+  }
+
+  @Test
+  public void testPageBoundaryOnSameCreatedDate() throws Exception {
+    when(policyActivityRepository.findLatestViolations(any(), any(), isNull(), isNull(), eq(3)))
+        .thenReturn(Arrays.asList(getActivity("5dcc68bcbf44c4532ae7678c", "c"),
+            getActivity("5dcc68bcbf44c4532ae7678b", "b"),
+            getActivity("5dcc68bcbf44c4532ae7678a", "a")));
+
+    MvcResult result = mockMvc.perform(
+        get("/bosun/policies/violations/page").param("teamId", TEAM_ID).param("limit", "2"))
+        .andExpect(status().isOk()).andExpect(jsonPath("$.violations.length()").value(2))
+        .andExpect(jsonPath("$.violations[1].referenceId").value("b")).andReturn();
+    String cursor = new ObjectMapper().readTree(result.getResponse().getContentAsString())
+        .get("nextCursor").asText();
+
+    mockMvc.perform(get("/bosun/policies/violations/page").param("teamId", TEAM_ID)
+        .param("limit", "2").param("cursor", cursor)).andExpect(status().isOk());
+
+    verify(policyActivityRepository).findLatestViolations(any(), any(), eq(createdDate),
+        eq("5dcc68bcbf44c4532ae7678b"), eq(3));
+  }
+
+  @Test
+  public void testMalformedCursorIsBadRequest() throws Exception {
+    for (String cursor : Arrays.asList("not a cursor", encode("1573068000000"),
+        encode("today:5dcc68bcbf44c4532ae7678b"), encode("1573068000000:5dcc68bc"))) {
+      mockMvc.perform(get("/bosun/policies/violations/page").param("teamId", TEAM_ID)
+          .param("cursor", cursor)).andExpect(status().isBadRequest());
+    }
+
+    verify(policyActivityRepository, never()).findLatestViolations(any(), any(), any(), any(),
+        anyInt());
+  }
+
+  @Test
+  public void testStreamBeforeRebuildIsUnavailable() throws Exception {
+    when(policyActivityRepository.isLatestActivitiesRebuilt()).thenReturn(false);
+
+    mockMvc.perform(get("/bosun/policies/violations/stream").param("teamId", TEAM_ID))
+        .andExpect(status().isServiceUnavailable());
+
+    verify(policyActivityRepository, never()).streamLatestViolations(any(), any());
+  }
+
+  @Test
+  public void testStreamWritesViolationsAndClosesCursor() throws Exception {
+    Cursor cursor = new Cursor(Arrays.asList(getActivity("5dcc68bcbf44c4532ae7678b", "b"),
+        getActivity("5dcc68bcbf44c4532ae7678a", "a")));
+    when(policyActivityRepository.streamLatestViolations(any(), any())).thenReturn(cursor);
+
+    MvcResult result =
+        mockMvc.perform(get("/bosun/policies/violations/stream").param("teamId", TEAM_ID))
+            .andExpect(request().asyncStarted()).andReturn();
+    mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+    JsonNode violations =
+        new ObjectMapper().readTree(result.getResponse().getContentAsString());
+    assertEquals(2, violations.size());
+    assertEquals("b", violations.get(0).get("referenceId").asText());
+    assertTrue(cursor.closed);
+  }
+
+  @Test
+  public void testStreamForUnknownPolicyIsEmpty() throws Exception {
+    MvcResult result = mockMvc.perform(get("/bosun/policies/violations/stream")
+        .param("teamId", TEAM_ID).param("policyId", "000000000000000000000000")).andReturn();
+    mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+    assertEquals("[]", result.getResponse().getContentAsString());
+    verify(policyActivityRepository, never()).streamLatestViolations(any(), any());
+  }
+
+  private PolicyActivityEntity getActivity(String id, String referenceId) {
+    PolicyActivityEntity activity = new PolicyActivityEntity();
+    activity.setId(id);
+    activity.setTeamId(TEAM_ID);
+    activity.setPolicyId(POLICY_ID);
+    activity.setReferenceId(referenceId);
+    activity.setCreatedDate(createdDate);
+    activity.setValid(false);
+    activity.setResults(new ArrayList<>());
+    return activity;
+  }
+
+  private static String encode(String cursor) {
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static class Cursor implements CloseableIterator<PolicyActivityEntity> {
+
+    private final Iterator<PolicyActivityEntity> activities;
+
+    private boolean closed;
+
+    Cursor(List<PolicyActivityEntity> activities) {
+      this.activities = activities.iterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return activities.hasNext();
+    }
+
+    @Override
+    public PolicyActivityEntity next() {
+      return activities.next();
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+}